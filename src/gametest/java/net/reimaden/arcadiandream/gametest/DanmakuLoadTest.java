@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.gametest;
+
+import dev.emi.trinkets.api.TrinketsApi;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.SpawnReason;
+import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.GameTestException;
+import net.minecraft.test.TestContext;
+import net.minecraft.util.Hand;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.GameMode;
+import net.reimaden.arcadiandream.block.ModBlocks;
+import net.reimaden.arcadiandream.block.entity.OnbashiraBlockEntity;
+import net.reimaden.arcadiandream.block.entity.RitualShrineBlockEntity;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.entity.ModEntities;
+import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import net.reimaden.arcadiandream.entity.variant.FairyPersonality;
+import net.reimaden.arcadiandream.item.ModItems;
+import net.reimaden.arcadiandream.item.custom.danmaku.BaseShotItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted danmaku load, run with ./gradlew runGametest on a dedicated server.
+ * <p>
+ * Every scenario warms up, then has every tick recorded by a {@link LoadRecorder}. The run fails if a
+ * scenario goes past its limits in src/gametest/thresholds.json, and what they measured ends up in
+ * build/reports/gametest/load.json either way.
+ * <p>
+ * How many fairies and players there are can be changed with the arcadiandream.load.fairies and
+ * arcadiandream.load.players system properties, the thresholds are for the defaults.
+ */
+public class DanmakuLoadTest implements FabricGameTest {
+
+    private static final int WARMUP_TICKS = 100;
+    private static final int MEASURED_TICKS = 400;
+    private static final int TICK_LIMIT = WARMUP_TICKS + MEASURED_TICKS + 20;
+
+    private static final int FAIRIES_PER_PERSONALITY = Integer.getInteger("arcadiandream.load.fairies", 8);
+    private static final int PLAYERS = Integer.getInteger("arcadiandream.load.players", 4);
+    private static final int SWEEP_INTERVAL = 20;
+
+    private static final BlockPos CENTER = new BlockPos(4, 2, 4);
+    private static final LoadThresholds THRESHOLDS = LoadThresholds.load();
+
+    /**
+     * Fairies of every personality surrounding the players, doing whatever they like to them.
+     */
+    @GameTest(templateName = EMPTY_STRUCTURE, batchId = "load_fairy_swarm", tickLimit = TICK_LIMIT)
+    public void fairySwarm(TestContext context) {
+        ServerWorld world = context.getWorld();
+        List<ServerPlayerEntity> players = spawnPlayers(context, PLAYERS, 3.0);
+        List<FairyEntity> fairies = new ArrayList<>();
+
+        BlockPos center = context.getAbsolutePos(CENTER);
+        int total = FAIRIES_PER_PERSONALITY * FairyPersonality.values().length;
+        for (FairyPersonality personality : FairyPersonality.values()) {
+            for (int i = 0; i < FAIRIES_PER_PERSONALITY; i++) {
+                float angle = MathHelper.TAU * fairies.size() / total;
+                BlockPos pos = center.add(MathHelper.floor(MathHelper.cos(angle) * 16), 4, MathHelper.floor(MathHelper.sin(angle) * 16));
+
+                FairyEntity fairy = ModEntities.FAIRY.spawn(world, null, null, null, pos, SpawnReason.EVENT, false, false);
+                if (fairy != null) {
+                    fairy.setPersonality(personality);
+                    fairy.setPersistent();
+                    fairies.add(fairy);
+                }
+            }
+        }
+
+        run(context, "fairy_swarm", players, () -> heal(players), () -> fairies.forEach(Entity::discard));
+    }
+
+    /**
+     * Every player firing a ring at max density every tick, as if the cooldown didn't exist.
+     */
+    @GameTest(templateName = EMPTY_STRUCTURE, batchId = "load_ring_volleys", tickLimit = TICK_LIMIT)
+    public void ringVolleys(TestContext context) {
+        ServerWorld world = context.getWorld();
+        List<ServerPlayerEntity> players = spawnPlayers(context, PLAYERS, 6.0);
+        ItemStack stack = createMaxDensityShot();
+
+        run(context, "ring_volleys", players, () -> {
+            heal(players);
+            fireRings(world, players, stack);
+        }, () -> {});
+    }
+
+    /**
+     * The same volleys, with one player using a bomb or an extend on them every second.
+     */
+    @GameTest(templateName = EMPTY_STRUCTURE, batchId = "load_cancel_sweeps", tickLimit = TICK_LIMIT)
+    public void cancelSweeps(TestContext context) {
+        ServerWorld world = context.getWorld();
+        List<ServerPlayerEntity> players = spawnPlayers(context, PLAYERS + 1, 6.0);
+        ServerPlayerEntity bomber = players.get(0);
+        List<ServerPlayerEntity> shooters = players.subList(1, players.size());
+        ItemStack stack = createMaxDensityShot();
+        int[] ticks = {0};
+
+        run(context, "cancel_sweeps", players, () -> {
+            heal(players);
+            fireRings(world, shooters, stack);
+
+            if (++ticks[0] % SWEEP_INTERVAL == 0) {
+                if (ticks[0] / SWEEP_INTERVAL % 2 == 0) {
+                    useBomb(world, bomber);
+                } else {
+                    useExtend(bomber);
+                }
+            }
+        }, () -> {});
+    }
+
+    /**
+     * A shrine with all 16 onbashiras around it, crafting every other tick and failing to craft
+     * out of a full set of items in between.
+     */
+    @GameTest(templateName = EMPTY_STRUCTURE, batchId = "load_ritual_loop", tickLimit = TICK_LIMIT)
+    public void ritualLoop(TestContext context) {
+        ServerWorld world = context.getWorld();
+        List<ServerPlayerEntity> players = spawnPlayers(context, 1, 0.0);
+        ServerPlayerEntity player = players.get(0);
+
+        List<BlockPos> placed = new ArrayList<>();
+        context.setBlockState(CENTER, ModBlocks.RITUAL_SHRINE);
+        placed.add(CENTER);
+        for (int i = 0; i < RitualShrineBlockEntity.ONBASHIRA_COUNT; i++) {
+            BlockPos pos = CENTER.add(RitualShrineBlockEntity.getOnbashiraOffset(i));
+            context.setBlockState(pos, ModBlocks.ONBASHIRA);
+            placed.add(pos);
+        }
+
+        RitualShrineBlockEntity shrine = (RitualShrineBlockEntity) world.getBlockEntity(context.getAbsolutePos(CENTER));
+        List<OnbashiraBlockEntity> onbashiras = new ArrayList<>();
+        for (int i = 1; i < placed.size(); i++) {
+            onbashiras.add((OnbashiraBlockEntity) world.getBlockEntity(context.getAbsolutePos(placed.get(i))));
+        }
+        if (shrine == null || onbashiras.contains(null)) {
+            throw new GameTestException("The ritual shrine or its onbashiras didn't get placed");
+        }
+
+        int[] ticks = {0};
+        run(context, "ritual_loop", players, () -> {
+            heal(players);
+            int tick = ticks[0]++;
+
+            if (tick % 2 == 0) {
+                // Move the recipe around, so every onbashira gets used
+                int first = tick / 2 % onbashiras.size();
+                setItem(onbashiras.get(first), new ItemStack(ModItems.MAKAITE_INGOT));
+                setItem(onbashiras.get((first + 1) % onbashiras.size()), new ItemStack(Items.NETHERITE_INGOT));
+            } else {
+                onbashiras.forEach(onbashira -> setItem(onbashira, new ItemStack(Items.COBBLESTONE)));
+            }
+
+            shrine.doCrafting(player);
+
+            // Whatever's left, the crafted item or the items that didn't match, goes away for the next round
+            if (shrine.hasItemStack()) {
+                shrine.removeStack(0);
+                shrine.markDirty();
+            }
+            onbashiras.forEach(onbashira -> setItem(onbashira, ItemStack.EMPTY));
+        }, () -> placed.forEach(pos -> context.setBlockState(pos, Blocks.AIR)));
+    }
+
+    private static void run(TestContext context, String scenario, List<ServerPlayerEntity> players, Runnable everyTick, Runnable cleanup) {
+        LoadRecorder recorder = LoadRecorder.start(scenario, WARMUP_TICKS, MEASURED_TICKS, everyTick);
+
+        context.waitAndRun(WARMUP_TICKS + MEASURED_TICKS, () -> {
+            LoadRecorder.Result result = recorder.finish();
+            cleanup.run();
+            cleanUp(context, players);
+            LoadReport.add(result);
+
+            List<String> failures = THRESHOLDS.check(result);
+            if (!failures.isEmpty()) {
+                throw new GameTestException(scenario + " went past its thresholds: " + String.join(", ", failures));
+            }
+            context.complete();
+        });
+    }
+
+    // Fake players in survival, so fairies go after them and bullets hit them, standing in a circle
+    private static List<ServerPlayerEntity> spawnPlayers(TestContext context, int count, double radius) {
+        Vec3d center = Vec3d.ofBottomCenter(context.getAbsolutePos(CENTER));
+        List<ServerPlayerEntity> players = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            float angle = MathHelper.TAU * i / count;
+            ServerPlayerEntity player = context.createMockCreativeServerPlayerInWorld();
+            player.changeGameMode(GameMode.SURVIVAL);
+            player.refreshPositionAndAngles(center.x + MathHelper.cos(angle) * radius, center.y,
+                    center.z + MathHelper.sin(angle) * radius, angle * MathHelper.DEGREES_PER_RADIAN, 0);
+            players.add(player);
+        }
+
+        return players;
+    }
+
+    private static void heal(List<ServerPlayerEntity> players) {
+        for (ServerPlayerEntity player : players) {
+            player.setHealth(player.getMaxHealth());
+            player.getHungerManager().setFoodLevel(20);
+        }
+    }
+
+    private static ItemStack createMaxDensityShot() {
+        ItemStack stack = new ItemStack(ModItems.CIRCLE_SHOT);
+        BaseShotItem shot = (BaseShotItem) stack.getItem();
+        shot.setDensity(stack, shot.getMaxDensity());
+        return stack;
+    }
+
+    private static void fireRings(ServerWorld world, List<ServerPlayerEntity> players, ItemStack stack) {
+        BaseShotItem shot = (BaseShotItem) stack.getItem();
+        for (ServerPlayerEntity player : players) {
+            // Turning a little every volley spreads the rings out like a real player would
+            player.setYaw(player.getYaw() + 7.0f);
+            shot.createRing(world, player, stack, shot.getDensity(stack), shot.getSpeed(stack), shot.getDivergence(stack));
+        }
+    }
+
+    // Bombs don't check their cooldown when used directly
+    private static void useBomb(ServerWorld world, ServerPlayerEntity player) {
+        player.setStackInHand(Hand.MAIN_HAND, new ItemStack(ModItems.BOMB_ITEM));
+        ModItems.BOMB_ITEM.use(world, player, Hand.MAIN_HAND);
+    }
+
+    // An extend only goes off when the player would have died
+    private static void useExtend(ServerPlayerEntity player) {
+        TrinketsApi.getTrinketComponent(player).ifPresent(trinkets ->
+                trinkets.getInventory().get("legs").get("belt").setStack(0, new ItemStack(ModItems.EXTEND_ITEM)));
+        player.damage(DamageSource.GENERIC, Float.MAX_VALUE);
+    }
+
+    private static void setItem(OnbashiraBlockEntity onbashira, ItemStack stack) {
+        if (onbashira.isEmpty() && stack.isEmpty()) {
+            return;
+        }
+        onbashira.setStack(0, stack);
+        onbashira.markDirty();
+    }
+
+    private static void cleanUp(TestContext context, List<ServerPlayerEntity> players) {
+        ServerWorld world = context.getWorld();
+        players.forEach(player -> world.getServer().getPlayerManager().remove(player));
+
+        // The next scenario starts without any bullets left over
+        DanmakuField.get(world).clear();
+        List<BaseBulletEntity> bullets = new ArrayList<>();
+        for (Entity entity : world.iterateEntities()) {
+            if (entity instanceof BaseBulletEntity bullet) {
+                bullets.add(bullet);
+            }
+        }
+        bullets.forEach(Entity::discard);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.gametest;
+
+import com.sun.management.ThreadMXBean;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times every server tick while a load scenario runs, and keeps track of how much the server thread
+ * allocated, how many entities there were and how many rituals got crafted.
+ * <p>
+ * Whole ticks are timed, not just the scenario's test, so only one scenario can run at a time.
+ * Every scenario gets its own batch for that reason.
+ */
+public final class LoadRecorder {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    // Going through every entity isn't free, and that shouldn't count against the scenario too much
+    private static final int COUNT_INTERVAL = 10;
+
+    @Nullable
+    private static LoadRecorder active;
+
+    static {
+        ServerTickEvents.START_SERVER_TICK.register(server -> {
+            if (active != null) {
+                active.startTick();
+            }
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (active != null) {
+                active.endTick(server);
+            }
+        });
+    }
+
+    private final String scenario;
+    private final int warmupTicks;
+    private final Runnable everyTick;
+    private final long[] tickNanos;
+    private final boolean allocationSupported = THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+
+    private int ticks;
+    private int measured;
+    private long tickStart;
+    private long tickAllocationStart;
+    private long allocatedBytes;
+    private int peakBullets;
+    private int peakFairies;
+    private int peakEntities;
+    private long craftsStart;
+    private long crafts;
+
+    private LoadRecorder(String scenario, int warmupTicks, int measuredTicks, Runnable everyTick) {
+        this.scenario = scenario;
+        this.warmupTicks = warmupTicks;
+        this.everyTick = everyTick;
+        this.tickNanos = new long[measuredTicks];
+        this.craftsStart = ModMetrics.RITUAL_CRAFTS.get();
+    }
+
+    /**
+     * Starts recording with the next tick. The scenario's own work for every tick goes in everyTick,
+     * which runs at the start of the tick so it's timed with the rest of it.
+     */
+    public static LoadRecorder start(String scenario, int warmupTicks, int measuredTicks, Runnable everyTick) {
+        if (active != null) {
+            throw new IllegalStateException("Can't run " + scenario + " while " + active.scenario + " is still running");
+        }
+
+        active = new LoadRecorder(scenario, warmupTicks, measuredTicks, everyTick);
+        return active;
+    }
+
+    private void startTick() {
+        tickStart = System.nanoTime();
+        tickAllocationStart = allocationSupported ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        everyTick.run();
+    }
+
+    private void endTick(MinecraftServer server) {
+        long nanos = System.nanoTime() - tickStart;
+        long allocated = allocationSupported ? THREADS.getCurrentThreadAllocatedBytes() - tickAllocationStart : 0;
+
+        // The first tick might have started before the recorder did
+        if (tickStart == 0 || ticks++ < warmupTicks) {
+            // Crafts during the warmup don't count either
+            craftsStart = ModMetrics.RITUAL_CRAFTS.get();
+            return;
+        }
+        if (measured >= tickNanos.length) {
+            return;
+        }
+
+        tickNanos[measured++] = nanos;
+        allocatedBytes += allocated;
+        crafts = ModMetrics.RITUAL_CRAFTS.get() - craftsStart;
+        if (measured % COUNT_INTERVAL == 1) {
+            countEntities(server);
+        }
+    }
+
+    private void countEntities(MinecraftServer server) {
+        int[] counts = new int[BulletType.values().length];
+        int bullets = 0;
+        int fairies = 0;
+        int entities = 0;
+
+        for (ServerWorld world : server.getWorlds()) {
+            DanmakuField field = DanmakuField.get(world);
+            field.countByType(counts);
+            entities += field.size();
+
+            for (Entity entity : world.iterateEntities()) {
+                entities++;
+                if (entity instanceof BaseBulletEntity) {
+                    bullets++;
+                } else if (entity instanceof FairyEntity) {
+                    fairies++;
+                }
+            }
+        }
+        bullets += Arrays.stream(counts).sum();
+
+        peakBullets = Math.max(peakBullets, bullets);
+        peakFairies = Math.max(peakFairies, fairies);
+        peakEntities = Math.max(peakEntities, entities);
+    }
+
+    /**
+     * Stops recording, a tick that's still going doesn't count.
+     */
+    public Result finish() {
+        if (active == this) {
+            active = null;
+        }
+
+        long[] sorted = Arrays.copyOf(tickNanos, measured);
+        Arrays.sort(sorted);
+        double seconds = measured / 20.0;
+
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("mspt_p50", percentile(sorted, 0.50));
+        values.put("mspt_p95", percentile(sorted, 0.95));
+        values.put("mspt_p99", percentile(sorted, 0.99));
+        values.put("mspt_max", percentile(sorted, 1.0));
+        if (allocationSupported) {
+            values.put("allocation_mb_per_second", seconds > 0 ? allocatedBytes / 1.0E6 / seconds : 0);
+        }
+        values.put("peak_bullets", (double) peakBullets);
+        values.put("peak_fairies", (double) peakFairies);
+        values.put("peak_entities", (double) peakEntities);
+        values.put("ritual_crafts", (double) crafts);
+
+        return new Result(scenario, measured, values);
+    }
+
+    // In milliseconds, the slowest tick out of the fastest p of them
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = Math.max((int) Math.ceil(sorted.length * p) - 1, 0);
+        return sorted[index] / 1.0E6;
+    }
+
+    /**
+     * @param values every measurement by name, thresholds use the same names
+     */
+    public record Result(String scenario, int ticks, Map<String, Double> values) {
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.gametest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import net.reimaden.arcadiandream.ArcadianDream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes what every scenario measured to build/reports/gametest/load.json, so runs can be compared.
+ * The file is written again after every scenario, in case a later one crashes the server.
+ */
+public final class LoadReport {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final JsonObject REPORT = new JsonObject();
+
+    private LoadReport() {
+    }
+
+    public static synchronized void add(LoadRecorder.Result result) {
+        JsonObject scenario = new JsonObject();
+        scenario.addProperty("ticks", result.ticks());
+        result.values().forEach(scenario::addProperty);
+        REPORT.add(result.scenario(), scenario);
+
+        ArcadianDream.LOGGER.info("Load scenario {} over {} ticks: {}", result.scenario(), result.ticks(),
+                result.values().entrySet().stream().map(LoadReport::format).collect(Collectors.joining(", ")));
+
+        Path file = Path.of(System.getProperty("arcadiandream.load.report", "load.json"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, GSON.toJson(REPORT));
+        } catch (IOException e) {
+            ArcadianDream.LOGGER.error("Couldn't write the load report to {}", file, e);
+        }
+    }
+
+    private static String format(Map.Entry<String, Double> entry) {
+        return entry.getKey() + "=" + String.format(Locale.ROOT, "%.2f", entry.getValue());
+    }
+}
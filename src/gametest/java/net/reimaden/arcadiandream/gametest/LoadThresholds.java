@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.gametest;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.util.JsonHelper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The limits every load scenario has to stay within, checked into src/gametest/thresholds.json.
+ * <p>
+ * Every scenario has a "max" and a "min" object, keyed by the names of the values the
+ * {@link LoadRecorder} measures. Mins are there to make sure a scenario actually made the load it's
+ * meant to, a volley test that fired nothing would pass every max.
+ */
+public final class LoadThresholds {
+
+    private final JsonObject scenarios;
+
+    private LoadThresholds(JsonObject scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    public static LoadThresholds load() {
+        String file = System.getProperty("arcadiandream.load.thresholds", "thresholds.json");
+        try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+            return new LoadThresholds(JsonParser.parseReader(reader).getAsJsonObject());
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalStateException("Couldn't read the load test thresholds from " + file, e);
+        }
+    }
+
+    /**
+     * @return why the result isn't good enough, or nothing if it is
+     */
+    public List<String> check(LoadRecorder.Result result) {
+        List<String> failures = new ArrayList<>();
+        if (!scenarios.has(result.scenario())) {
+            failures.add("no thresholds for " + result.scenario());
+            return failures;
+        }
+
+        JsonObject thresholds = JsonHelper.getObject(scenarios, result.scenario());
+        check(result, JsonHelper.getObject(thresholds, "max", new JsonObject()), true, failures);
+        check(result, JsonHelper.getObject(thresholds, "min", new JsonObject()), false, failures);
+        return failures;
+    }
+
+    private static void check(LoadRecorder.Result result, JsonObject limits, boolean max, List<String> failures) {
+        for (Map.Entry<String, JsonElement> entry : limits.entrySet()) {
+            Double value = result.values().get(entry.getKey());
+            if (value == null) {
+                // Allocations can't be measured on every JVM, a typo should still fail though
+                if (!entry.getKey().startsWith("allocation")) {
+                    failures.add("unknown value " + entry.getKey());
+                }
+                continue;
+            }
+
+            double limit = entry.getValue().getAsDouble();
+            if (max ? value > limit : value < limit) {
+                failures.add(String.format(Locale.ROOT, "%s was %.2f, %s %.2f", entry.getKey(), value, max ? "max" : "min", limit));
+            }
+        }
+    }
+}
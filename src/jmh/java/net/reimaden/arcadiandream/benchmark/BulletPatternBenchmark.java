@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The direction math behind every pattern in {@code BulletPatterns} and {@code MobBulletPatterns}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulletPatternBenchmark {
+
+    @Param({"spread", "ray", "ring", "cone", "double", "triple"})
+    public String patternName;
+
+    @Param({"1", "4", "16", "64"})
+    public int density;
+
+    private BulletPattern pattern;
+    private float pitch;
+    private float yaw;
+
+    @Setup
+    public void setup() {
+        pattern = BulletPatternManager.getDefault().get(patternName);
+        pitch = -12.5f;
+        yaw = 137.0f;
+    }
+
+    @Benchmark
+    public void forEachShot(Blackhole blackhole) {
+        pattern.forEachShot(pitch, yaw, density, 1.5f, 0.0f, (x, y, z, speed, divergence) -> {
+            blackhole.consume(x);
+            blackhole.consume(y);
+            blackhole.consume(z);
+            blackhole.consume(speed);
+        });
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import net.minecraft.util.math.random.Random;
+import net.reimaden.arcadiandream.util.ColorMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColorMapBenchmark {
+
+    // The first and last entries, so both ends of the lookup are covered
+    @Param({"red", "brown"})
+    public String colorName;
+
+    private int color;
+    private final Random random = Random.create(0L);
+
+    @Setup
+    public void setup() {
+        color = ColorMap.getColorInt(colorName);
+    }
+
+    @Benchmark
+    public int getColorInt() {
+        return ColorMap.getColorInt(colorName);
+    }
+
+    @Benchmark
+    public String getColorName() {
+        return ColorMap.getColorName(color);
+    }
+
+    @Benchmark
+    public boolean matchesMap() {
+        return ColorMap.matchesMap(color);
+    }
+
+    @Benchmark
+    public int getRandomBulletColor() {
+        return ColorMap.getRandomBulletColor(random);
+    }
+}
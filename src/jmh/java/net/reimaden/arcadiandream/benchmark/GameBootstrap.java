@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ * Loads the vanilla registries, which is all the benchmarks need from the game.
+ * <p>
+ * Nothing here runs through Fabric Loader, so mixins aren't applied and the mod's own content isn't registered.
+ * Benchmarks stick to vanilla items and code that doesn't depend on either.
+ */
+public class GameBootstrap {
+
+    private GameBootstrap() {}
+
+    public static void initialize() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.enchantment.Enchantments;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.collection.DefaultedList;
+import net.minecraft.util.math.BlockPos;
+import net.reimaden.arcadiandream.networking.packet.ItemStackSyncS2CPacket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the inventories the shrine, onbashiras and crafting table sync to clients,
+ * with every slot changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemStackSyncBenchmark {
+
+    // An onbashira, and a Danmaku Crafting Table
+    @Param({"1", "7"})
+    public int size;
+
+    private final BlockPos pos = new BlockPos(128, 64, -256);
+    private DefaultedList<ItemStack> items;
+    private int mask;
+    private PacketByteBuf encoded;
+    private PacketByteBuf buf;
+
+    @Setup
+    public void setup() {
+        GameBootstrap.initialize();
+
+        items = DefaultedList.ofSize(size, ItemStack.EMPTY);
+        for (int i = 0; i < size; i++) {
+            // Shots are always full of NBT, so the stacks here have some too
+            ItemStack stack = new ItemStack(i % 2 == 0 ? Items.DIAMOND_SWORD : Items.GLOWSTONE_DUST, 64);
+            stack.getOrCreateNbt().putFloat("power", 2.5f);
+            stack.getOrCreateNbt().putInt("duration", 200);
+            if (i % 2 == 0) {
+                stack.addEnchantment(Enchantments.SHARPNESS, 5);
+            }
+            items.set(i, stack);
+        }
+
+        mask = (1 << size) - 1;
+        encoded = new PacketByteBuf(Unpooled.buffer());
+        ItemStackSyncS2CPacket.write(encoded, pos, mask, items);
+        buf = new PacketByteBuf(Unpooled.buffer());
+    }
+
+    @Benchmark
+    public PacketByteBuf encode() {
+        buf.clear();
+        ItemStackSyncS2CPacket.write(buf, pos, mask, items);
+        return buf;
+    }
+
+    @Benchmark
+    public ItemStack[] decode() {
+        encoded.readerIndex(0);
+        encoded.readBlockPos();
+        return ItemStackSyncS2CPacket.readStacks(encoded, encoded.readVarInt());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.collection.DefaultedList;
+import net.minecraft.util.math.random.Random;
+import net.reimaden.arcadiandream.recipe.RitualCraftingRecipe;
+import net.reimaden.arcadiandream.recipe.RitualRecipeIndex;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the ritual recipe for a full ring of onbashiras, through the {@link RitualRecipeIndex} shrines use
+ * and the way {@code RecipeManager.getFirstMatch} does, for comparison.
+ * <p>
+ * Moon phase and dimension checks need a world, so only the ingredients are matched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RitualRecipeBenchmark {
+
+    private static final int ONBASHIRAS = 16;
+
+    @Param({"50", "500"})
+    public int recipes;
+
+    private final List<RitualCraftingRecipe> recipeList = new ArrayList<>();
+    private RitualRecipeIndex index;
+    private SimpleInventory matching;
+    private SimpleInventory missing;
+
+    @Setup
+    public void setup() {
+        GameBootstrap.initialize();
+
+        Random random = Random.create(0L);
+        List<Item> items = Registries.ITEM.stream().filter(item -> item.getMaxCount() > 1).toList();
+
+        for (int r = 0; r < recipes; r++) {
+            // Anywhere between 2 and 16 ingredients, like real rituals
+            int count = 2 + random.nextInt(ONBASHIRAS - 1);
+            DefaultedList<Ingredient> ingredients = DefaultedList.ofSize(count, Ingredient.EMPTY);
+            for (int i = 0; i < count; i++) {
+                ingredients.set(i, Ingredient.ofItems(items.get(random.nextInt(items.size()))));
+            }
+
+            recipeList.add(new RitualCraftingRecipe(new Identifier("benchmark", "ritual_" + r),
+                    new ItemStack(items.get(random.nextInt(items.size()))), ingredients, (byte) -1, ""));
+        }
+
+        index = RitualRecipeIndex.of(recipeList);
+
+        // The last recipe matches, so every other one has to be checked first
+        matching = inventoryFor(recipeList.get(recipeList.size() - 1));
+        missing = new SimpleInventory(ONBASHIRAS);
+        for (int i = 0; i < ONBASHIRAS; i++) {
+            missing.setStack(i, new ItemStack(items.get(random.nextInt(items.size()))));
+        }
+    }
+
+    private static SimpleInventory inventoryFor(RitualCraftingRecipe recipe) {
+        DefaultedList<Ingredient> ingredients = recipe.getIngredients();
+        SimpleInventory inventory = new SimpleInventory(ingredients.size());
+        for (int i = 0; i < ingredients.size(); i++) {
+            inventory.setStack(i, ingredients.get(i).getMatchingStacks()[0].copy());
+        }
+        return inventory;
+    }
+
+    @Nullable
+    private RitualCraftingRecipe findFirst(SimpleInventory inventory) {
+        for (RitualCraftingRecipe recipe : recipeList) {
+            if (recipe.matchesIngredients(inventory)) {
+                return recipe;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public RitualCraftingRecipe matchLast() {
+        return findFirst(matching);
+    }
+
+    @Benchmark
+    public RitualCraftingRecipe matchNone() {
+        return findFirst(missing);
+    }
+
+    @Benchmark
+    public RitualCraftingRecipe indexMatchLast() {
+        return index.getFirstMatch(matching, recipe -> true).orElse(null);
+    }
+
+    @Benchmark
+    public RitualCraftingRecipe indexMatchNone() {
+        return index.getFirstMatch(missing, recipe -> true).orElse(null);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.benchmark;
+
+import net.reimaden.arcadiandream.item.custom.danmaku.ShotModifier;
+import net.reimaden.arcadiandream.item.custom.danmaku.ShotStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modifying a fresh circle shot with a whole stack of modifiers, like the Danmaku Crafting Table does.
+ * <p>
+ * Shot items can't be registered here, so this goes straight to the stats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShotModifierBenchmark {
+
+    @Param({"POWER", "DENSITY", "SPEED", "DURATION", "GRAVITY", "DIVERGENCE"})
+    public ShotModifier modifier;
+
+    @Param({"16", "64"})
+    public int count;
+
+    @Benchmark
+    public float apply() {
+        // Same stats as ModItems.CIRCLE_SHOT
+        ShotStats stats = new ShotStats(12, 2.0f, 200, 100, 1.0f, 90, 25);
+        stats.power = 1;
+        stats.speed = 0.8f;
+        stats.duration = 100;
+        stats.cooldown = 2;
+        stats.density = 1;
+
+        int steps = stats.apply(modifier, count);
+        return steps + stats.power + stats.speed + stats.duration + stats.cooldown + stats.gravity + stats.divergence + stats.density;
+    }
+}
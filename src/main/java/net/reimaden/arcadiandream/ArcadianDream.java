@@ -19,6 +19,7 @@ import net.reimaden.arcadiandream.event.ModEvents;
 import net.reimaden.arcadiandream.gui.ModScreenHandlers;
 import net.reimaden.arcadiandream.item.ModItemGroups;
 import net.reimaden.arcadiandream.item.ModItems;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
 import net.reimaden.arcadiandream.painting.ModPaintings;
 import net.reimaden.arcadiandream.particle.ModParticles;
 import net.reimaden.arcadiandream.recipe.ModRecipes;
@@ -62,6 +63,7 @@ public class ArcadianDream implements ModInitializer {
 		ModLootTableModifiers.modify();
 
 		ModEvents.register();
+		ModMetrics.register();
 		ModScreenHandlers.register();
 
 		GeckoLib.initialize();
@@ -7,8 +7,10 @@ package net.reimaden.arcadiandream;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.reimaden.arcadiandream.block.entity.client.ModBlockEntityRenderer;
+import net.reimaden.arcadiandream.danmaku.client.ClientDanmakuField;
 import net.reimaden.arcadiandream.entity.client.EntityRenderer;
 import net.reimaden.arcadiandream.gui.ModScreenHandlers;
+import net.reimaden.arcadiandream.item.custom.danmaku.ShotModifierEngine;
 import net.reimaden.arcadiandream.networking.ModMessages;
 import net.reimaden.arcadiandream.particle.ModParticles;
 import net.reimaden.arcadiandream.util.ModModelPredicateProvider;
@@ -27,5 +29,7 @@ public class ArcadianDreamClient implements ClientModInitializer {
         ModModelPredicateProvider.register();
         ModBlockEntityRenderer.register();
         ModScreenHandlers.registerClient();
+        ClientDanmakuField.register();
+        ShotModifierEngine.registerClient();
     }
 }
@@ -5,6 +5,7 @@
 
 package net.reimaden.arcadiandream.block;
 
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
 import net.reimaden.arcadiandream.entity.custom.CircleBulletEntity;
 import net.reimaden.arcadiandream.item.ModItems;
 import net.minecraft.block.DispenserBlock;
@@ -21,7 +22,7 @@ public class ModDispenserBehavior {
 
             @Override
             protected ProjectileEntity createProjectile(World world, Position position, ItemStack stack) {
-                return Util.make(new CircleBulletEntity(world, position.getX(), position.getY(), position.getZ()), entity -> entity.setItem(stack));
+                return Util.make(new CircleBulletEntity(world, position.getX(), position.getY(), position.getZ()), entity -> entity.setArchetype(BulletArchetype.fromStack(stack)));
             }
         });
     }
@@ -7,6 +7,7 @@ package net.reimaden.arcadiandream.block.custom;
 
 import net.reimaden.arcadiandream.block.entity.ModBlockEntities;
 import net.reimaden.arcadiandream.block.entity.OnbashiraBlockEntity;
+import net.reimaden.arcadiandream.block.entity.RitualShrineBlockEntity;
 import net.reimaden.arcadiandream.sound.ModSounds;
 import net.minecraft.block.*;
 import net.minecraft.block.entity.BlockEntity;
@@ -97,6 +98,14 @@ public class OnbashiraBlock extends BlockWithEntity implements BlockEntityProvid
         return ActionResult.PASS;
     }
 
+    @Override
+    public void onBlockAdded(BlockState state, World world, BlockPos pos, BlockState oldState, boolean notify) {
+        super.onBlockAdded(state, world, pos, oldState, notify);
+        if (!oldState.isOf(this)) {
+            RitualShrineBlockEntity.updateShrines(world, pos, true, false);
+        }
+    }
+
     @Override
     public void onStateReplaced(BlockState state, World world, BlockPos pos, BlockState newState, boolean moved) {
         if (state.isOf(newState.getBlock())) {
@@ -108,6 +117,7 @@ public class OnbashiraBlock extends BlockWithEntity implements BlockEntityProvid
             world.updateComparators(pos, this);
         }
         super.onStateReplaced(state, world, pos, newState, moved);
+        RitualShrineBlockEntity.updateShrines(world, pos, false, false);
     }
 
     @Nullable
@@ -5,7 +5,6 @@
 
 package net.reimaden.arcadiandream.block.custom;
 
-import net.reimaden.arcadiandream.block.ModBlocks;
 import net.reimaden.arcadiandream.block.entity.ModBlockEntities;
 import net.reimaden.arcadiandream.block.entity.RitualShrineBlockEntity;
 import net.reimaden.arcadiandream.particle.ModParticles;
@@ -94,24 +93,24 @@ public class RitualShrineBlock extends BlockWithEntity implements BlockEntityPro
         super.onStateReplaced(state, world, pos, newState, moved);
     }
 
-    public static boolean canAccessOnbashira(World world, BlockPos shrinePos, BlockPos onbashiraOffset) {
-        BlockState block = world.getBlockState(shrinePos.add(onbashiraOffset));
-        return block.isOf(ModBlocks.ONBASHIRA) && block.get(OnbashiraBlock.HAS_ITEM);
-    }
-
     @Override
     public void randomDisplayTick(BlockState state, World world, BlockPos pos, Random random) {
         super.randomDisplayTick(state, world, pos, random);
-        for (BlockPos blockPos : RitualShrineBlockEntity.ONBASHIRA_LOCATIONS) {
-            onbashiraParticles(world, pos, random, blockPos);
+        if (!(world.getBlockEntity(pos) instanceof RitualShrineBlockEntity shrine)) {
+            return;
         }
-        for (BlockPos blockPos : RitualShrineBlockEntity.SECOND_ONBASHIRA_LOCATIONS) {
-            onbashiraParticles(world, pos, random, blockPos);
+
+        // The server keeps track of which onbashiras hold an item, so there's no need to look at them
+        int mask = shrine.getItemMask();
+        while (mask != 0) {
+            int index = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            onbashiraParticles(world, pos, random, RitualShrineBlockEntity.getOnbashiraOffset(index));
         }
     }
 
     private static void onbashiraParticles(World world, BlockPos pos, Random random, BlockPos blockPos) {
-        if (random.nextInt(8) != 0 || !canAccessOnbashira(world, pos, blockPos)) return;
+        if (random.nextInt(8) != 0) return;
         world.addParticle(ModParticles.RITUAL, (double) pos.getX() + 0.5, (double) pos.getY() + 2.0, (double) pos.getZ() + 0.5,
                 (double)((float) blockPos.getX() + random.nextFloat()) - 0.5,
                 (float) blockPos.getY() - random.nextFloat() - 1.0f,
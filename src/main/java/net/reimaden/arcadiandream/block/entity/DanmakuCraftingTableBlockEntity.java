@@ -5,52 +5,36 @@
 
 package net.reimaden.arcadiandream.block.entity;
 
-import com.google.common.collect.ImmutableList;
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
-import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.inventory.Inventories;
 import net.minecraft.inventory.SidedInventory;
-import net.minecraft.item.DyeItem;
-import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.Packet;
-import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
-import net.minecraft.registry.Registries;
 import net.minecraft.screen.NamedScreenHandlerFactory;
 import net.minecraft.screen.PropertyDelegate;
 import net.minecraft.screen.ScreenHandler;
-import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
-import net.reimaden.arcadiandream.ArcadianDream;
 import net.reimaden.arcadiandream.gui.DanmakuCraftingScreenHandler;
 import net.reimaden.arcadiandream.item.ModItems;
 import net.reimaden.arcadiandream.item.custom.danmaku.BaseShotItem;
-import net.reimaden.arcadiandream.item.custom.danmaku.BulletCoreItem;
-import net.reimaden.arcadiandream.networking.ModMessages;
-import net.reimaden.arcadiandream.util.ColorMap;
-import net.reimaden.arcadiandream.util.ModTags;
+import net.reimaden.arcadiandream.item.custom.danmaku.ShotModifierEngine;
+import net.reimaden.arcadiandream.networking.InventorySync;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class DanmakuCraftingTableBlockEntity extends BlockEntity implements ImplementedInventory, NamedScreenHandlerFactory, SidedInventory {
 
     public static final int SIZE = 7;
     private final DefaultedList<ItemStack> items = DefaultedList.ofSize(SIZE, ItemStack.EMPTY);
+    private final InventorySync.Tracker sync = new InventorySync.Tracker(this, items);
 
     protected final PropertyDelegate propertyDelegate;
     private int modifierCount = 0;
@@ -88,12 +72,6 @@ public class DanmakuCraftingTableBlockEntity extends BlockEntity implements Impl
         return items;
     }
 
-    public void setInventory(DefaultedList<ItemStack> list) {
-        for (int i = 0; i < items.size(); i++) {
-            items.set(i, list.get(i));
-        }
-    }
-
     private void updateResult() {
         /* Inventory slot indexes
          * 0 = Core
@@ -121,21 +99,12 @@ public class DanmakuCraftingTableBlockEntity extends BlockEntity implements Impl
     }
 
     private void craftShot() {
-        if (!(items.get(0).getItem() instanceof BulletCoreItem) || !items.get(3).isOf(ModItems.BIG_POWER_ITEM)) {
+        if (!items.get(3).isOf(ModItems.BIG_POWER_ITEM)) {
             items.set(2, ItemStack.EMPTY);
             return;
         }
 
-        // Get the bullet type of the core
-        Identifier itemId = Registries.ITEM.getId(items.get(0).getItem());
-        String bulletCoreType = itemId.getPath().split("_")[0];
-        String shotType = bulletCoreType + "_shot";
-
-        // Set the output shot to the bullet type
-        ItemStack shotStack = new ItemStack(Registries.ITEM.get(new Identifier(ArcadianDream.MOD_ID, shotType)));
-        items.set(2, shotStack);
-
-        shotStack.getOrCreateNbt();
+        items.set(2, ShotModifierEngine.craft(items.get(0)));
     }
 
     private void modifyShot() {
@@ -144,164 +113,10 @@ public class DanmakuCraftingTableBlockEntity extends BlockEntity implements Impl
             return;
         }
 
-        ItemStack modifiedShot = items.get(1).copy();
-        modifyShot(modifiedShot);
-        items.set(2, modifiedShot);
-    }
-
-    // I am too afraid to optimize this
-    // TODO: Add gravity and divergence modifiers
-    private void modifyShot(ItemStack stack) {
-        BaseShotItem shot = (BaseShotItem) stack.getItem();
-
-        if (!items.get(3).isEmpty()) {
-            ItemStack modifierStack = items.get(3);
-            int count = modifierStack.getCount();
-            float percentage = 0.05f;
-            float reductionPercentage = 0.02f;
-
-            double maxPower, maxSpeed;
-            int maxDuration;
-            maxPower = shot.getMaxPower();
-            maxSpeed = shot.getMaxSpeed();
-            maxDuration = shot.getMaxDuration();
-
-            applyModifiers(stack, shot, modifierStack, count, percentage, reductionPercentage, maxPower, maxSpeed, maxDuration);
-        }
-
-        if (!items.get(4).isEmpty()) {
-            int repairAmount = 50;
-
-            for (int i = 0; i < items.get(4).getCount(); i++) {
-                if (stack.getDamage() <= 0) {
-                    break;
-                }
-
-                stack.setDamage(stack.getDamage() - repairAmount);
-                propertyDelegate.set(1, propertyDelegate.get(1) + 1);
-            }
-        }
-
-        if (!items.get(5).isEmpty()) {
-            ImmutableList<Item> patternItems = ImmutableList.of(
-                    ModItems.SPREAD_PATTERN, ModItems.RAY_PATTERN, ModItems.RING_PATTERN, ModItems.CONE_PATTERN,
-                    ModItems.DOUBLE_PATTERN, ModItems.TRIPLE_PATTERN
-            );
-
-            Map<Item, Integer> itemMap = new HashMap<>();
-            for (int i = 0; i < patternItems.size(); i++) {
-                itemMap.put(patternItems.get(i), i);
-            }
-
-            int itemId = itemMap.getOrDefault(items.get(5).getItem(), 0);
-
-            switch (itemId) {
-                case 0 -> shot.setPattern(stack, "spread");
-                case 1 -> shot.setPattern(stack, "ray");
-                case 2 -> shot.setPattern(stack, "ring");
-                case 3 -> shot.setPattern(stack, "cone");
-                case 4 -> shot.setPattern(stack, "double");
-                case 5 -> shot.setPattern(stack, "triple");
-                default -> throw new IllegalArgumentException("No valid bullet pattern found!");
-            }
-        }
-
-        if (!items.get(6).isEmpty()) {
-            Item dye = items.get(6).getItem();
-            if (dye instanceof DyeItem) {
-                int colorInt = ColorMap.getColorInt(((DyeItem) dye).getColor().getName());
-                shot.setColor(stack, colorInt);
-            }
-        }
-    }
-
-    private void applyModifiers(ItemStack stack, BaseShotItem shot, ItemStack modifierStack, int count, float percentage, float reductionPercentage, double maxPower, double maxSpeed, int maxDuration) {
-        if (modifierStack.isIn(ModTags.Items.DANMAKU_POWER_MODIFIERS)) {
-            maxPower *= 2;
-
-            for (int i = 0; i < count; i++) {
-                if (shot.getPower(stack) >= shot.getMaxPower()) {
-                    break;
-                }
-
-                double power = shot.getPower(stack);
-                double result = power * (1 + percentage * (1 - (power / maxPower)));
-                shot.setPower(stack, (float) result);
-
-                shot.setCooldown(stack, shot.getCooldown(stack) + 1);
-                double speed = shot.getSpeed(stack);
-                double resultReductionSpeed = speed * (1 - reductionPercentage * (speed / maxSpeed));
-                int duration = shot.getDuration(stack);
-                double resultReductionDuration = duration * (1 - reductionPercentage * (duration / (double) maxDuration));
-                shot.setSpeed(stack, Math.max((float) resultReductionSpeed, 0.05f));
-                shot.setDuration(stack, Math.max((int) resultReductionDuration, 20));
-
-                propertyDelegate.set(0, propertyDelegate.get(0) + 1);
-            }
-        } else if (modifierStack.isIn(ModTags.Items.DANMAKU_DENSITY_MODIFIERS)) {
-            for (int i = 0; i < count; i++) {
-                if (shot.getDensity(stack) >= shot.getMaxDensity()) {
-                    break;
-                }
-
-                shot.setDensity(stack, shot.getDensity(stack) + 1);
-
-                shot.setCooldown(stack, shot.getCooldown(stack) + 1);
-                double resultReductionPower = shot.getPower(stack) * (1 - reductionPercentage * (shot.getPower(stack) / maxPower));
-                double speed = shot.getSpeed(stack);
-                double resultReductionSpeed = speed * (1 - reductionPercentage * (speed / maxSpeed));
-                int duration = shot.getDuration(stack);
-                double resultReductionDuration = duration * (1 - reductionPercentage * (duration / (double) maxDuration));
-                shot.setPower(stack, Math.max((float) resultReductionPower, 0.1f));
-                shot.setSpeed(stack, Math.max((float) resultReductionSpeed, 0.05f));
-                shot.setDuration(stack, Math.max((int) resultReductionDuration, 20));
-
-                propertyDelegate.set(0, propertyDelegate.get(0) + 1);
-            }
-        } else if (modifierStack.isIn(ModTags.Items.DANMAKU_SPEED_MODIFIERS)) {
-            maxSpeed *= 2;
-
-            for (int i = 0; i < count; i++) {
-                if (shot.getSpeed(stack) >= shot.getMaxSpeed()) {
-                    break;
-                }
-
-                double speed = shot.getSpeed(stack);
-                double result = speed * (1 + percentage * (1 - (speed / maxSpeed)));
-                shot.setSpeed(stack, (float) result);
-
-                shot.setCooldown(stack, shot.getCooldown(stack) + 1);
-                double resultReductionPower = shot.getPower(stack) * (1 - reductionPercentage * (shot.getPower(stack) / maxPower));
-                int duration = shot.getDuration(stack);
-                double resultReductionDuration = duration * (1 - reductionPercentage * (duration / (double) maxDuration));
-                shot.setPower(stack, Math.max((float) resultReductionPower, 0.1f));
-                shot.setDuration(stack, Math.max((int) resultReductionDuration, 20));
-
-                propertyDelegate.set(0, propertyDelegate.get(0) + 1);
-            }
-        } else if (modifierStack.isIn(ModTags.Items.DANMAKU_DURATION_MODIFIERS)) {
-            maxDuration *= 2;
-
-            for (int i = 0; i < count; i++) {
-                if (shot.getDuration(stack) >= shot.getMaxDuration()) {
-                    break;
-                }
-
-                double duration = shot.getDuration(stack);
-                double result = duration * (1 + percentage * (1 - (duration / maxDuration)));
-                result = Math.ceil(result);
-                shot.setDuration(stack, (int) result);
-
-                shot.setCooldown(stack, shot.getCooldown(stack) + 1);
-                double resultReductionPower = shot.getPower(stack) * (1 - reductionPercentage * (shot.getPower(stack) / maxPower));
-                double speed = shot.getSpeed(stack);
-                double resultReductionSpeed = speed * (1 - reductionPercentage * (speed / maxSpeed));
-                shot.setPower(stack, Math.max((float) resultReductionPower, 0.1f));
-                shot.setSpeed(stack, Math.max((float) resultReductionSpeed, 0.05f));
-
-                propertyDelegate.set(0, propertyDelegate.get(0) + 1);
-            }
-        }
+        ShotModifierEngine.Result result = ShotModifierEngine.modify(items.get(1), items.get(3), items.get(4), items.get(5), items.get(6));
+        items.set(2, result.stack());
+        propertyDelegate.set(0, result.modifiers());
+        propertyDelegate.set(1, result.repairs());
     }
 
     private boolean craftingShot() {
@@ -319,16 +134,8 @@ public class DanmakuCraftingTableBlockEntity extends BlockEntity implements Impl
     @Override
     public void markDirty() {
         if (world != null && !world.isClient()) {
-            PacketByteBuf data = PacketByteBufs.create();
-            data.writeInt(items.size());
-            for (ItemStack item : items) {
-                data.writeItemStack(item);
-            }
-            data.writeBlockPos(getPos());
-
-            for (ServerPlayerEntity player : PlayerLookup.tracking((ServerWorld) world, getPos())) {
-                ServerPlayNetworking.send(player, ModMessages.ITEM_SYNC, data);
-            }
+            // Sent at the end of the tick, so the result below goes out with it
+            InventorySync.markDirty(sync);
         }
 
         updateResult();
@@ -347,6 +154,7 @@ public class DanmakuCraftingTableBlockEntity extends BlockEntity implements Impl
     public void readNbt(NbtCompound nbt) {
         super.readNbt(nbt);
         Inventories.readNbt(nbt, items);
+        sync.reset();
         modifierCount = nbt.getInt("modifierCount");
         repairCount = nbt.getInt("repairCount");
     }
@@ -5,11 +5,8 @@
 
 package net.reimaden.arcadiandream.block.entity;
 
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
-import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.reimaden.arcadiandream.block.custom.OnbashiraBlock;
-import net.reimaden.arcadiandream.networking.ModMessages;
+import net.reimaden.arcadiandream.networking.InventorySync;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.inventory.Inventories;
@@ -17,11 +14,8 @@ import net.minecraft.inventory.SidedInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.Packet;
-import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
-import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
@@ -31,31 +25,26 @@ import org.jetbrains.annotations.Nullable;
 public class OnbashiraBlockEntity extends BlockEntity implements ImplementedInventory, SidedInventory {
 
     private final DefaultedList<ItemStack> items = DefaultedList.ofSize(1, ItemStack.EMPTY);
+    private final InventorySync.Tracker sync = new InventorySync.Tracker(this, items);
+    // Loading or having NBT written in doesn't go through markDirty, so nearby shrines get told on the next tick
+    private boolean reported;
 
     public ItemStack getRenderStack() {
         return this.getStack(0);
     }
 
-    public void setInventory(DefaultedList<ItemStack> list) {
-        for (int i = 0; i < items.size(); i++) {
-            this.items.set(i, list.get(i));
-        }
-    }
-
     @Override
     public void markDirty() {
         if (world != null && !world.isClient()) {
-            PacketByteBuf data = PacketByteBufs.create();
-            data.writeInt(items.size());
-            for (ItemStack item : items) {
-                data.writeItemStack(item);
+            InventorySync.markDirty(sync);
+
+            // Only touch the block when the item actually came or went
+            BlockState state = world.getBlockState(pos);
+            boolean hasItem = hasItemStack();
+            if (state.contains(OnbashiraBlock.HAS_ITEM) && state.get(OnbashiraBlock.HAS_ITEM) != hasItem) {
+                world.setBlockState(pos, state.with(OnbashiraBlock.HAS_ITEM, hasItem));
+                RitualShrineBlockEntity.updateShrines(world, pos, true, hasItem);
             }
-            data.writeBlockPos(getPos());
-
-            for (ServerPlayerEntity player : PlayerLookup.tracking((ServerWorld) world, getPos())) {
-                ServerPlayNetworking.send(player, ModMessages.ITEM_SYNC, data);
-            }
-            world.setBlockState(pos, world.getBlockState(pos).with(OnbashiraBlock.HAS_ITEM, hasItemStack()));
         }
 
         super.markDirty();
@@ -82,6 +71,8 @@ public class OnbashiraBlockEntity extends BlockEntity implements ImplementedInve
     public void readNbt(NbtCompound nbt) {
         super.readNbt(nbt);
         Inventories.readNbt(nbt, items);
+        sync.reset();
+        reported = false;
     }
 
     @Override
@@ -102,7 +93,12 @@ public class OnbashiraBlockEntity extends BlockEntity implements ImplementedInve
     }
 
     @SuppressWarnings("unused")
-    public static void tick(World world, BlockPos blockPos, BlockState blockState, OnbashiraBlockEntity entity) {}
+    public static void tick(World world, BlockPos blockPos, BlockState blockState, OnbashiraBlockEntity entity) {
+        if (!world.isClient() && !entity.reported) {
+            entity.reported = true;
+            RitualShrineBlockEntity.updateShrines(world, blockPos, true, entity.hasItemStack());
+        }
+    }
 
     @Override
     public int[] getAvailableSlots(Direction side) {
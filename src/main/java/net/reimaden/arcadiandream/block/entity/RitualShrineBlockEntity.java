@@ -5,16 +5,17 @@
 
 package net.reimaden.arcadiandream.block.entity;
 
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
-import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.inventory.SimpleInventory;
 import net.minecraft.stat.Stats;
 import net.reimaden.arcadiandream.advancement.ModCriteria;
 import net.reimaden.arcadiandream.block.custom.RitualShrineBlock;
-import net.reimaden.arcadiandream.networking.ModMessages;
+import net.reimaden.arcadiandream.jfr.RitualCraftEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
+import net.reimaden.arcadiandream.networking.InventorySync;
 import net.reimaden.arcadiandream.recipe.RitualCraftingRecipe;
+import net.reimaden.arcadiandream.recipe.RitualRecipeIndex;
 import net.reimaden.arcadiandream.sound.ModSounds;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -22,8 +23,8 @@ import net.minecraft.inventory.Inventories;
 import net.minecraft.inventory.SidedInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.network.Packet;
-import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
 import net.minecraft.particle.ParticleTypes;
@@ -32,9 +33,11 @@ import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.statistic.ModStats;
+import net.reimaden.arcadiandream.util.TickProfiler;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -44,31 +47,30 @@ import java.util.Optional;
 public class RitualShrineBlockEntity extends BlockEntity implements ImplementedInventory, SidedInventory {
 
     private final DefaultedList<ItemStack> items = DefaultedList.ofSize(1, ItemStack.EMPTY);
+    private final InventorySync.Tracker sync = new InventorySync.Tracker(this, items);
+
+    // Which of the onbashira spots around the shrine hold an onbashira, and which of those hold an item,
+    // one bit per spot in the order of ONBASHIRA_LOCATIONS and then SECOND_ONBASHIRA_LOCATIONS
+    private int onbashiraMask;
+    private int itemMask;
+    // Onbashiras can change while the shrine isn't loaded, so every shrine looks around once after loading
+    private boolean scanned;
 
     public ItemStack getRenderStack() {
         return this.getStack(0);
     }
 
-    public void setInventory(DefaultedList<ItemStack> list) {
-        for (int i = 0; i < items.size(); i++) {
-            this.items.set(i, list.get(i));
-        }
-    }
-
     @Override
     public void markDirty() {
         if (world != null && !world.isClient()) {
-            PacketByteBuf data = PacketByteBufs.create();
-            data.writeInt(items.size());
-            for (ItemStack item : items) {
-                data.writeItemStack(item);
-            }
-            data.writeBlockPos(getPos());
+            InventorySync.markDirty(sync);
 
-            for (ServerPlayerEntity player : PlayerLookup.tracking((ServerWorld) world, getPos())) {
-                ServerPlayNetworking.send(player, ModMessages.ITEM_SYNC, data);
+            // Only touch the block when the item actually came or went
+            BlockState state = world.getBlockState(pos);
+            boolean hasItem = hasItemStack();
+            if (state.contains(RitualShrineBlock.HAS_ITEM) && state.get(RitualShrineBlock.HAS_ITEM) != hasItem) {
+                world.setBlockState(pos, state.with(RitualShrineBlock.HAS_ITEM, hasItem));
             }
-            world.setBlockState(pos, world.getBlockState(pos).with(RitualShrineBlock.HAS_ITEM, hasItemStack()));
         }
 
         super.markDirty();
@@ -95,33 +97,117 @@ public class RitualShrineBlockEntity extends BlockEntity implements ImplementedI
             new BlockPos(-5, 1, -2)
     };
 
+    public static final int ONBASHIRA_COUNT = ONBASHIRA_LOCATIONS.length + SECOND_ONBASHIRA_LOCATIONS.length;
+
+    public static BlockPos getOnbashiraOffset(int index) {
+        return index < ONBASHIRA_LOCATIONS.length ? ONBASHIRA_LOCATIONS[index] : SECOND_ONBASHIRA_LOCATIONS[index - ONBASHIRA_LOCATIONS.length];
+    }
+
     public void doCrafting(@Nullable PlayerEntity player) {
         if (world != null && !world.isClient()) {
-            List<OnbashiraBlockEntity> onbashiras = new ArrayList<>();
-            for (BlockPos pos : ONBASHIRA_LOCATIONS) {
-                getOnbashiraPos(pos.add(getPos())).ifPresent(onbashiras::add);
+            long start = TickProfiler.begin();
+            if (!scanned) {
+                scanOnbashiras();
             }
-            for (BlockPos pos : SECOND_ONBASHIRA_LOCATIONS) {
-                getOnbashiraPos(pos.add(getPos())).ifPresent(onbashiras::add);
+
+            // Only the onbashiras with an item need to be looked at
+            List<OnbashiraBlockEntity> onbashiras = new ArrayList<>();
+            int mask = itemMask;
+            while (mask != 0) {
+                int index = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+
+                if (world.getBlockEntity(getPos().add(getOnbashiraOffset(index))) instanceof OnbashiraBlockEntity onbashira) {
+                    if (onbashira.hasItemStack()) {
+                        onbashiras.add(onbashira);
+                    } else {
+                        updateOnbashira(index, true, false);
+                    }
+                } else {
+                    updateOnbashira(index, false, false);
+                }
             }
-            List<ItemStack> stacks = onbashiras.stream().filter(OnbashiraBlockEntity::hasItemStack).map(OnbashiraBlockEntity::getItemStack).toList();
+            List<ItemStack> stacks = onbashiras.stream().map(OnbashiraBlockEntity::getItemStack).toList();
             craftItem(stacks, onbashiras, this, player);
+            TickProfiler.end(TickProfiler.Section.RITUAL_CRAFTING, start);
         }
     }
 
-    @SuppressWarnings({"DataFlowIssue", "OptionalGetWithoutIsPresent"})
-    private void craftItem(List<ItemStack> stacks, List<OnbashiraBlockEntity> onbashiras, RitualShrineBlockEntity shrineBlock, PlayerEntity player) {
-        SimpleInventory inventory = new SimpleInventory(stacks.size());
-        for (int i = 0; i < stacks.size(); i++) {
-            inventory.setStack(i, stacks.get(i));
+    /**
+     * Looks at every onbashira spot around the shrine, and remembers what's there.
+     */
+    @SuppressWarnings("DataFlowIssue")
+    public void scanOnbashiras() {
+        int onbashiras = 0;
+        int items = 0;
+        for (int index = 0; index < ONBASHIRA_COUNT; index++) {
+            if (world.getBlockEntity(getPos().add(getOnbashiraOffset(index))) instanceof OnbashiraBlockEntity onbashira) {
+                onbashiras |= 1 << index;
+                if (onbashira.hasItemStack()) {
+                    items |= 1 << index;
+                }
+            }
+        }
+
+        scanned = true;
+        setMasks(onbashiras, items);
+    }
+
+    public void updateOnbashira(int index, boolean present, boolean hasItem) {
+        int bit = 1 << index;
+        setMasks(present ? onbashiraMask | bit : onbashiraMask & ~bit,
+                present && hasItem ? itemMask | bit : itemMask & ~bit);
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    private void setMasks(int onbashiras, int items) {
+        if (onbashiras == onbashiraMask && items == itemMask) {
+            return;
+        }
+        onbashiraMask = onbashiras;
+        itemMask = items;
+
+        // Skip the item sync, clients only need the masks
+        super.markDirty();
+        world.updateListeners(getPos(), getCachedState(), getCachedState(), Block.NOTIFY_LISTENERS);
+    }
+
+    /**
+     * Tells the shrines an onbashira could belong to that it's been placed, broken, or had its item changed.
+     */
+    public static void updateShrines(World world, BlockPos onbashiraPos, boolean present, boolean hasItem) {
+        if (world.isClient()) {
+            return;
+        }
+
+        for (int index = 0; index < ONBASHIRA_COUNT; index++) {
+            BlockPos shrinePos = onbashiraPos.subtract(getOnbashiraOffset(index));
+            // Shrines in unloaded chunks look around again once they're loaded
+            if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(shrinePos.getX()), ChunkSectionPos.getSectionCoord(shrinePos.getZ()))) {
+                continue;
+            }
+            if (world.getBlockEntity(shrinePos) instanceof RitualShrineBlockEntity shrine) {
+                shrine.updateOnbashira(index, present, hasItem);
+            }
         }
+    }
 
-        OnbashiraBlockEntity onbashiraBlock = onbashiras.get(0);
+    /**
+     * @return the onbashira spots that hold an item, one bit per spot
+     */
+    public int getItemMask() {
+        return itemMask;
+    }
 
-        Optional<RitualCraftingRecipe> recipe = onbashiraBlock.getWorld().getRecipeManager()
-                .getFirstMatch(RitualCraftingRecipe.Type.INSTANCE, inventory, onbashiraBlock.getWorld());
+    @SuppressWarnings("DataFlowIssue")
+    private void craftItem(List<ItemStack> stacks, List<OnbashiraBlockEntity> onbashiras, RitualShrineBlockEntity shrineBlock, PlayerEntity player) {
+        RitualCraftEvent event = new RitualCraftEvent();
+        event.begin();
+        long matchStart = System.nanoTime();
+        Optional<RitualCraftingRecipe> recipe = findRecipe(stacks);
+        long matchTime = System.nanoTime() - matchStart;
 
-        if (hasRecipe(stacks, onbashiras)) {
+        if (recipe.isPresent()) {
             onbashiras.forEach(entity -> {
                 if (!entity.isEmpty()) {
                     onbashiraEffects(entity);
@@ -136,22 +222,21 @@ public class RitualShrineBlockEntity extends BlockEntity implements ImplementedI
             player.incrementStat(ModStats.INTERACT_WITH_RITUAL_SHRINE);
             player.incrementStat(Stats.CRAFTED.getOrCreateStat(recipe.get().getOutput().getItem()));
             ModCriteria.RITUAL_CRAFTING.trigger((ServerPlayerEntity) player);
+            ModMetrics.RITUAL_CRAFTS.inc();
         }
+
+        event.commit(recipe.orElse(null), matchTime);
     }
 
+    // Looked up once per ritual, the check and the crafting both go off the same result
     @SuppressWarnings("DataFlowIssue")
-    private boolean hasRecipe(List<ItemStack> stacks, List<OnbashiraBlockEntity> onbashiras) {
+    private Optional<RitualCraftingRecipe> findRecipe(List<ItemStack> stacks) {
         SimpleInventory inventory = new SimpleInventory(stacks.size());
         for (int i = 0; i < stacks.size(); i++) {
             inventory.setStack(i, stacks.get(i));
         }
 
-        OnbashiraBlockEntity onbashiraBlock = onbashiras.get(0);
-
-        Optional<RitualCraftingRecipe> match = onbashiraBlock.getWorld().getRecipeManager()
-                .getFirstMatch(RitualCraftingRecipe.Type.INSTANCE, inventory, onbashiraBlock.getWorld());
-
-        return match.isPresent();
+        return RitualRecipeIndex.get(world.getRecipeManager()).getFirstMatch(inventory, world);
     }
 
     private void craftEffects() {
@@ -179,17 +264,16 @@ public class RitualShrineBlockEntity extends BlockEntity implements ImplementedI
         }
     }
 
-    @SuppressWarnings("DataFlowIssue")
-    private Optional<OnbashiraBlockEntity> getOnbashiraPos(BlockPos pos) {
-        return Optional.ofNullable((OnbashiraBlockEntity) world.getBlockEntity(pos));
-    }
-
     public RitualShrineBlockEntity(BlockPos pos, BlockState state) {
         super(ModBlockEntities.RITUAL_SHRINE, pos, state);
     }
 
     @SuppressWarnings("unused")
-    public static void tick(World world, BlockPos pos, BlockState state, RitualShrineBlockEntity blockEntity) {}
+    public static void tick(World world, BlockPos pos, BlockState state, RitualShrineBlockEntity blockEntity) {
+        if (!world.isClient() && !blockEntity.scanned) {
+            blockEntity.scanOnbashiras();
+        }
+    }
 
     @Override
     public DefaultedList<ItemStack> getItems() {
@@ -204,12 +288,21 @@ public class RitualShrineBlockEntity extends BlockEntity implements ImplementedI
     public void readNbt(NbtCompound nbt) {
         super.readNbt(nbt);
         Inventories.readNbt(nbt, items);
+        sync.reset();
+        if (nbt.contains("Onbashiras", NbtElement.INT_TYPE)) {
+            onbashiraMask = nbt.getInt("Onbashiras");
+            itemMask = nbt.getInt("OnbashiraItems");
+        }
+        // The masks are only kept for clients, the server has to check them against the world again
+        scanned = false;
     }
 
     @Override
     public void writeNbt(NbtCompound nbt) {
         super.writeNbt(nbt);
         Inventories.writeNbt(nbt, items);
+        nbt.putInt("Onbashiras", onbashiraMask);
+        nbt.putInt("OnbashiraItems", itemMask);
     }
 
     @Nullable
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.danmaku.DanmakuBudget;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+
+public class DanmakuCommand {
+
+    @SuppressWarnings("unused")
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher,
+                                CommandRegistryAccess commandRegistryAccess, CommandManager.RegistrationEnvironment registrationEnvironment) {
+        dispatcher.register(CommandManager.literal(ArcadianDream.MOD_ID)
+                .then(CommandManager.literal("danmaku").requires(source -> source.hasPermissionLevel(2))
+                        .then(CommandManager.literal("stats").executes(DanmakuCommand::stats))));
+    }
+
+    private static int stats(CommandContext<ServerCommandSource> context) {
+        DanmakuField field = DanmakuField.get(context.getSource().getWorld());
+        int candidatePairs = field.getBroadphase().getLastCandidatePairs();
+
+        DanmakuBudget budget = field.getBudget();
+
+        context.getSource().sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.danmaku.stats",
+                budget.getCount(), candidatePairs), false);
+        context.getSource().sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.danmaku.evictions",
+                budget.getWorldEvictions(), budget.getChunkEvictions(), budget.getOwnerEvictions()), false);
+        context.getSource().sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.danmaku.impacts",
+                field.getImpacts().getLastPredictions()), false);
+
+        return candidatePairs;
+    }
+}
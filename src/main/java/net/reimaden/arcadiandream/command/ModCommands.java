@@ -11,5 +11,7 @@ public class ModCommands {
 
     public static void register() {
         CommandRegistrationCallback.EVENT.register(HouraiElixirCommand::register);
+        CommandRegistrationCallback.EVENT.register(DanmakuCommand::register);
+        CommandRegistrationCallback.EVENT.register(ProfileCommand::register);
     }
 }
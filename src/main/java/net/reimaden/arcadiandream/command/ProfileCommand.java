@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+import net.minecraft.util.WorldSavePath;
+import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.util.TickProfiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class ProfileCommand {
+
+    @SuppressWarnings("unused")
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher,
+                                CommandRegistryAccess commandRegistryAccess, CommandManager.RegistrationEnvironment registrationEnvironment) {
+        dispatcher.register(CommandManager.literal(ArcadianDream.MOD_ID)
+                .then(CommandManager.literal("profile").requires(source -> source.hasPermissionLevel(2))
+                        .then(CommandManager.literal("start").executes(ProfileCommand::start))
+                        .then(CommandManager.literal("stop").executes(ProfileCommand::stop))
+                        .then(CommandManager.literal("dump").executes(ProfileCommand::dump))));
+    }
+
+    private static int start(CommandContext<ServerCommandSource> context) {
+        if (!TickProfiler.start(context.getSource().getServer())) {
+            context.getSource().sendError(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.already_running"));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.started"), true);
+        return 1;
+    }
+
+    private static int stop(CommandContext<ServerCommandSource> context) {
+        if (!TickProfiler.stop()) {
+            context.getSource().sendError(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.not_running"));
+            return 0;
+        }
+
+        context.getSource().sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.stopped",
+                TickProfiler.getTicks()), true);
+        return TickProfiler.getTicks();
+    }
+
+    private static int dump(CommandContext<ServerCommandSource> context) {
+        ServerCommandSource source = context.getSource();
+        int ticks = TickProfiler.getTicks();
+        if (ticks < 0) {
+            source.sendError(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.empty"));
+            return 0;
+        }
+
+        List<TickProfiler.Row> rows = TickProfiler.getRows();
+        source.sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.header",
+                ticks, Math.min(ticks, TickProfiler.WINDOW)), false);
+        for (TickProfiler.Row row : rows) {
+            source.sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.row", row.section().getName(),
+                    row.calls(), millis(row.totalNanos()), millis(row.windowNanosPerTick()),
+                    micros(row.meanNanos()), micros(row.p99Nanos())), false);
+        }
+
+        Path file = source.getServer().getSavePath(WorldSavePath.ROOT)
+                .resolve(ArcadianDream.MOD_ID).resolve("profile-" + Util.getFormattedCurrentTime() + ".txt");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, toTable(rows, ticks));
+        } catch (IOException e) {
+            ArcadianDream.LOGGER.error("Couldn't write the profile to {}", file, e);
+            source.sendError(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.failed"));
+            return 0;
+        }
+
+        source.sendFeedback(Text.translatable(ArcadianDream.MOD_ID + ".commands.profile.written",
+                file.getFileName().toString()), false);
+        return rows.size();
+    }
+
+    private static List<String> toTable(List<TickProfiler.Row> rows, int ticks) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Arcadian Dream profile, %d ticks, last %d ticks for ms/tick and p99",
+                ticks, Math.min(ticks, TickProfiler.WINDOW)));
+        lines.add("");
+        lines.add(String.format(Locale.ROOT, "%-18s %12s %12s %10s %10s %10s",
+                "section", "calls", "total ms", "ms/tick", "avg us", "p99 us"));
+        for (TickProfiler.Row row : rows) {
+            lines.add(String.format(Locale.ROOT, "%-18s %12d %12s %10s %10s %10s", row.section().getName(), row.calls(),
+                    millis(row.totalNanos()), millis(row.windowNanosPerTick()), micros(row.meanNanos()), micros(row.p99Nanos())));
+        }
+        return lines;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1.0E6);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1.0E3);
+    }
+}
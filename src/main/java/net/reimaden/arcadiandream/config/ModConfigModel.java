@@ -67,4 +67,43 @@ public class ModConfigModel {
     @Sync(Option.SyncMode.OVERRIDE_CLIENT)
     @RangeConstraint(min = 1, max = 4)
     public int danmakuCooldownMultiplier = 1;
+
+    @RestartRequired
+    public boolean ballisticBulletSync = true;
+
+    @Nest
+    public DanmakuFieldOptions danmakuFieldOptions = new DanmakuFieldOptions();
+
+    public static class DanmakuFieldOptions {
+        public boolean enabled = true;
+
+        public boolean batchedRendering = true;
+
+        @RangeConstraint(min = 256, max = 65536)
+        public int maxBullets = 8192;
+
+        @RangeConstraint(min = 64, max = 16384)
+        public int maxBulletsPerChunk = 2048;
+
+        @RangeConstraint(min = 16, max = 4096)
+        public int maxBulletsPerOwner = 512;
+    }
+
+    @SectionHeader("debug")
+
+    @Nest
+    public MetricsOptions metricsOptions = new MetricsOptions();
+
+    public static class MetricsOptions {
+        @RestartRequired
+        public boolean enabled = false;
+
+        public String file = "arcadiandream-metrics.prom";
+
+        @RangeConstraint(min = 1, max = 300)
+        public int interval = 15;
+
+        @RangeConstraint(min = 0, max = 65535)
+        public int port = 0;
+    }
 }
@@ -15,4 +15,8 @@ public class ModDamageSources {
     public static DamageSource danmaku(Entity projectile, @Nullable Entity attacker) {
         return new DanmakuDamageSource("danmaku", projectile, attacker).setProjectile();
     }
+
+    public static DamageSource danmaku(@Nullable Entity attacker) {
+        return new DanmakuDamageSource("danmaku", attacker, attacker).setProjectile();
+    }
 }
@@ -9,6 +9,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.damage.EntityDamageSource;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.Nullable;
 
 public class DanmakuDamageSource extends EntityDamageSource {
@@ -16,7 +17,7 @@ public class DanmakuDamageSource extends EntityDamageSource {
     @Nullable
     private final Entity attacker;
 
-    public DanmakuDamageSource(String name, Entity source, @Nullable Entity attacker) {
+    public DanmakuDamageSource(String name, @Nullable Entity source, @Nullable Entity attacker) {
         super(name, source);
         this.attacker = attacker;
     }
@@ -33,8 +34,18 @@ public class DanmakuDamageSource extends EntityDamageSource {
         return this.attacker;
     }
 
+    @Override
+    @Nullable
+    public Vec3d getPosition() {
+        return this.source != null ? this.source.getPos() : null;
+    }
+
     @Override
     public Text getDeathMessage(LivingEntity entity) {
+        // Bullets from the danmaku field outlive their owner, so there may be no one left to blame
+        if (this.source == null && this.attacker == null) {
+            return Text.translatable("death.attack." + this.name + ".stray", entity.getDisplayName());
+        }
         Text text = this.attacker == null ? this.source.getDisplayName() : this.attacker.getDisplayName();
         String string = "death.attack." + this.name;
         String string2 = string + ".player";
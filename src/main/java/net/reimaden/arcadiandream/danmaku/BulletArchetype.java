@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.network.PacketByteBuf;
+import net.reimaden.arcadiandream.item.custom.danmaku.DyeableBullet;
+
+import java.util.Objects;
+
+/**
+ * The stats every bullet of a volley has in common.
+ * <p>
+ * Archetypes are immutable and interned, so each volley resolves its archetype once,
+ * and all of its bullets share that one instance instead of carrying a copy of the shot stack.
+ */
+public final class BulletArchetype {
+
+    private static final Interner<BulletArchetype> INTERNER = Interners.newWeakInterner();
+
+    // Same stats a bullet had back when an empty stack meant default values
+    private static final float DEFAULT_POWER = 0.0f;
+    private static final int DEFAULT_DURATION = 200;
+
+    private final BulletType type;
+    private final float power;
+    private final float speed;
+    private final int duration;
+    private final float gravity;
+    private final float divergence;
+    private final int color;
+
+    private BulletArchetype(BulletType type, float power, float speed, int duration, float gravity, float divergence, int color) {
+        this.type = type;
+        this.power = power;
+        this.speed = speed;
+        this.duration = duration;
+        this.gravity = gravity;
+        this.divergence = divergence;
+        this.color = color;
+    }
+
+    public static BulletArchetype of(BulletType type, float power, float speed, int duration, float gravity, float divergence, int color) {
+        return INTERNER.intern(new BulletArchetype(type, power, speed, duration, gravity, divergence, color));
+    }
+
+    public static BulletArchetype getDefault(BulletType type) {
+        return of(type, DEFAULT_POWER, 0.0f, DEFAULT_DURATION, 0.0f, 0.0f, DyeableBullet.DEFAULT_COLOR);
+    }
+
+    /**
+     * Reads the stats of a shot stack, falling back to the defaults if it has none.
+     */
+    public static BulletArchetype fromStack(ItemStack stack) {
+        BulletType type = BulletType.fromItem(stack.getItem());
+        int color = stack.getItem() instanceof DyeableBullet bullet ? bullet.getColor(stack) : DyeableBullet.DEFAULT_COLOR;
+
+        if (!stack.hasNbt()) {
+            return of(type, DEFAULT_POWER, 0.0f, DEFAULT_DURATION, 0.0f, 0.0f, color);
+        }
+
+        NbtCompound nbt = stack.getOrCreateNbt();
+        return of(type, nbt.getFloat("power"), nbt.getFloat("speed"), nbt.getInt("duration"),
+                nbt.getFloat("gravity"), nbt.getFloat("divergence"), color);
+    }
+
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.putByte("type", (byte) type.ordinal());
+        nbt.putFloat("power", power);
+        nbt.putFloat("speed", speed);
+        nbt.putInt("duration", duration);
+        nbt.putFloat("gravity", gravity);
+        nbt.putFloat("divergence", divergence);
+        nbt.putInt("color", color);
+        return nbt;
+    }
+
+    public static BulletArchetype fromNbt(NbtCompound nbt) {
+        return of(BulletType.byId(nbt.getByte("type")), nbt.getFloat("power"), nbt.getFloat("speed"), nbt.getInt("duration"),
+                nbt.getFloat("gravity"), nbt.getFloat("divergence"), nbt.getInt("color"));
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeByte(type.ordinal());
+        buf.writeFloat(power);
+        buf.writeFloat(speed);
+        buf.writeVarInt(duration);
+        buf.writeFloat(gravity);
+        buf.writeFloat(divergence);
+        buf.writeInt(color);
+    }
+
+    public static BulletArchetype read(PacketByteBuf buf) {
+        return of(BulletType.byId(buf.readByte()), buf.readFloat(), buf.readFloat(), buf.readVarInt(),
+                buf.readFloat(), buf.readFloat(), buf.readInt());
+    }
+
+    public BulletType getType() {
+        return type;
+    }
+
+    public float getPower() {
+        return power;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public float getGravity() {
+        return gravity;
+    }
+
+    public float getDivergence() {
+        return divergence;
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public ItemStack getRenderStack() {
+        return type.getRenderStack(color);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BulletArchetype that)) {
+            return false;
+        }
+        return type == that.type && Float.compare(that.power, power) == 0 && Float.compare(that.speed, speed) == 0
+                && duration == that.duration && Float.compare(that.gravity, gravity) == 0
+                && Float.compare(that.divergence, divergence) == 0 && color == that.color;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, power, speed, duration, gravity, divergence, color);
+    }
+}
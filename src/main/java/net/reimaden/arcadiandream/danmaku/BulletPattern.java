@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Vec3d;
+import net.reimaden.arcadiandream.ArcadianDream;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * A shape a volley of bullets can be fired in, as loaded by a {@link BulletPatternManager}.
+ * <p>
+ * The math only depends on its arguments, so the server and every client
+ * arrive at exactly the same directions for the same volley.
+ * <p>
+ * The directions are compiled into {@link PatternKernel}s when the pattern is loaded, for every
+ * density up to {@link #PRECOMPILED_DENSITY}. Denser volleys get their kernel the first time they're fired.
+ */
+public final class BulletPattern {
+
+    public static final Identifier SPREAD = new Identifier(ArcadianDream.MOD_ID, "spread");
+    public static final Identifier RAY = new Identifier(ArcadianDream.MOD_ID, "ray");
+    public static final Identifier RING = new Identifier(ArcadianDream.MOD_ID, "ring");
+    public static final Identifier CONE = new Identifier(ArcadianDream.MOD_ID, "cone");
+    public static final Identifier DOUBLE = new Identifier(ArcadianDream.MOD_ID, "double");
+    public static final Identifier TRIPLE = new Identifier(ArcadianDream.MOD_ID, "triple");
+
+    // Enough for anything a crafted shot can have
+    public static final int PRECOMPILED_DENSITY = 64;
+    private static final int MAX_CACHED_DENSITY = 256;
+
+    private final Identifier id;
+    private final int rawId;
+    private final PatternDefinition definition;
+    // Kernels are immutable, so it doesn't matter if two threads happen to build the same one
+    private final PatternKernel[] kernels = new PatternKernel[MAX_CACHED_DENSITY + 1];
+
+    BulletPattern(Identifier id, int rawId, PatternDefinition definition) {
+        this.id = id;
+        this.rawId = rawId;
+        this.definition = definition;
+
+        for (int density = 0; density <= PRECOMPILED_DENSITY; density++) {
+            kernels[density] = PatternKernel.build(definition, density);
+        }
+    }
+
+    /**
+     * Reads a pattern id the way it's stored on shots. Older shots only have the name,
+     * which always refers to one of the mod's own patterns.
+     */
+    @Nullable
+    public static Identifier parseId(String name) {
+        String id = name.toLowerCase(Locale.ROOT);
+        return Identifier.tryParse(id.indexOf(':') < 0 ? ArcadianDream.MOD_ID + ":" + id : id);
+    }
+
+    public static String getTranslationKey(Identifier id) {
+        return "item." + id.getNamespace() + ".bullet.pattern_" + id.getPath().replace('/', '.');
+    }
+
+    public static String getTranslationKey(String name) {
+        Identifier id = parseId(name);
+        return id != null ? getTranslationKey(id) : name;
+    }
+
+    public Identifier getId() {
+        return id;
+    }
+
+    /**
+     * The id used over the network, which is only valid for the {@link BulletPatternManager} it came from.
+     */
+    public int getRawId() {
+        return rawId;
+    }
+
+    public PatternDefinition getDefinition() {
+        return definition;
+    }
+
+    public PatternKernel getKernel(int density) {
+        density = Math.max(density, 0);
+        if (density > MAX_CACHED_DENSITY) {
+            return PatternKernel.build(definition, density);
+        }
+
+        PatternKernel kernel = kernels[density];
+        if (kernel == null) {
+            kernel = PatternKernel.build(definition, density);
+            kernels[density] = kernel;
+        }
+
+        return kernel;
+    }
+
+    /**
+     * Calls the consumer once for every bullet in the pattern, in the order they are fired.
+     * The directions are not normalized, and don't include any divergence yet.
+     */
+    public void forEachShot(float pitch, float yaw, int density, float speed, float divergence, ShotConsumer consumer) {
+        getKernel(density).forEachShot(pitch, yaw, speed, divergence, consumer);
+    }
+
+    /**
+     * What every bullet gets added to its velocity when the owner fires the pattern, the same as
+     * {@code ProjectileEntity.setVelocity} adds for a shooter. Falling doesn't count while on the ground.
+     */
+    public Vec3d getInheritedVelocity(Entity owner) {
+        if (!definition.shape().inheritsVelocity()) {
+            return Vec3d.ZERO;
+        }
+
+        Vec3d velocity = owner.getVelocity();
+        return new Vec3d(velocity.x, owner.isOnGround() ? 0.0 : velocity.y, velocity.z);
+    }
+
+    @Override
+    public String toString() {
+        return id.toString();
+    }
+
+    @FunctionalInterface
+    public interface ShotConsumer {
+        void accept(double x, double y, double z, float speed, float divergence);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.JsonHelper;
+import net.reimaden.arcadiandream.ArcadianDream;
+
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads {@code data/<namespace>/danmaku_patterns/<name>.json} into the server's {@link BulletPatternManager}.
+ * The built-in patterns are always there, but a datapack can change them by using the same id.
+ */
+public class BulletPatternLoader implements SimpleSynchronousResourceReloadListener {
+
+    private static final String DIRECTORY = "danmaku_patterns";
+    private static final String EXTENSION = ".json";
+
+    @Override
+    public Identifier getFabricId() {
+        return new Identifier(ArcadianDream.MOD_ID, DIRECTORY);
+    }
+
+    @Override
+    public void reload(ResourceManager manager) {
+        Map<Identifier, PatternDefinition> definitions = new HashMap<>();
+
+        for (Map.Entry<Identifier, Resource> entry : manager.findResources(DIRECTORY, path -> path.getPath().endsWith(EXTENSION)).entrySet()) {
+            Identifier file = entry.getKey();
+            String path = file.getPath();
+            Identifier id = new Identifier(file.getNamespace(), path.substring(DIRECTORY.length() + 1, path.length() - EXTENSION.length()));
+
+            try (Reader reader = entry.getValue().getReader()) {
+                definitions.put(id, PatternDefinition.fromJson(JsonHelper.deserialize(reader)));
+            } catch (Exception e) {
+                ArcadianDream.LOGGER.error("Couldn't load danmaku pattern {} from {}", id, file, e);
+            }
+        }
+
+        BulletPatternManager.setServer(BulletPatternManager.withBuiltIns(definitions));
+        ArcadianDream.LOGGER.info("Loaded {} danmaku patterns", definitions.size());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import com.google.common.collect.ImmutableMap;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import net.reimaden.arcadiandream.ArcadianDream;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every {@link BulletPattern} that can be fired, loaded from the {@code danmaku_patterns} folder of datapacks.
+ * <p>
+ * Shots store the id of their pattern, and look it up here every time they're fired, so all
+ * the lookups are flat hash map gets. Raw ids are handed out by sorting the ids, which keeps them
+ * the same on both sides once the client has received the server's patterns.
+ * <p>
+ * Managers are immutable: a reload builds a new one and swaps it in.
+ */
+public final class BulletPatternManager {
+
+    private static final Map<Identifier, PatternDefinition> BUILT_IN = ImmutableMap.of(
+            BulletPattern.SPREAD, PatternDefinition.of(PatternShape.SPREAD),
+            BulletPattern.RAY, PatternDefinition.of(PatternShape.RAY),
+            BulletPattern.RING, PatternDefinition.of(PatternShape.RING),
+            BulletPattern.CONE, PatternDefinition.of(PatternShape.ARC).withAngle(45.0f),
+            BulletPattern.DOUBLE, PatternDefinition.of(PatternShape.MULTI_RAY).withRays(2).withAngle(22.5f),
+            BulletPattern.TRIPLE, PatternDefinition.of(PatternShape.MULTI_RAY).withRays(3).withAngle(15.0f)
+    );
+
+    private static final BulletPatternManager DEFAULT = new BulletPatternManager(BUILT_IN);
+
+    private static volatile BulletPatternManager server = DEFAULT;
+    private static volatile BulletPatternManager client = DEFAULT;
+
+    private final Map<Identifier, BulletPattern> byId;
+    private final BulletPattern[] byRawId;
+    // Also has the bare names of the mod's own patterns, which is what older shots store
+    private final Map<String, BulletPattern> byName;
+
+    BulletPatternManager(Map<Identifier, PatternDefinition> definitions) {
+        List<Identifier> ids = new ArrayList<>(definitions.keySet());
+        ids.sort(null);
+
+        ImmutableMap.Builder<Identifier, BulletPattern> byId = ImmutableMap.builder();
+        Map<String, BulletPattern> byName = new HashMap<>();
+        this.byRawId = new BulletPattern[ids.size()];
+
+        for (int rawId = 0; rawId < ids.size(); rawId++) {
+            Identifier id = ids.get(rawId);
+            BulletPattern pattern = new BulletPattern(id, rawId, definitions.get(id));
+
+            byId.put(id, pattern);
+            byRawId[rawId] = pattern;
+            byName.put(id.toString(), pattern);
+            if (id.getNamespace().equals(ArcadianDream.MOD_ID)) {
+                byName.put(id.getPath(), pattern);
+            }
+        }
+
+        this.byId = byId.build();
+        this.byName = ImmutableMap.copyOf(byName);
+    }
+
+    /**
+     * Makes a manager out of the built-in patterns, and the ones loaded from datapacks on top of them.
+     */
+    public static BulletPatternManager withBuiltIns(Map<Identifier, PatternDefinition> loaded) {
+        Map<Identifier, PatternDefinition> definitions = new LinkedHashMap<>(BUILT_IN);
+        definitions.putAll(loaded);
+        return new BulletPatternManager(definitions);
+    }
+
+    public static BulletPatternManager getDefault() {
+        return DEFAULT;
+    }
+
+    public static BulletPatternManager get(World world) {
+        return get(world.isClient());
+    }
+
+    public static BulletPatternManager get(boolean isClient) {
+        return isClient ? client : server;
+    }
+
+    public static BulletPatternManager getServer() {
+        return server;
+    }
+
+    public static void setServer(BulletPatternManager manager) {
+        server = manager;
+    }
+
+    public static void setClient(BulletPatternManager manager) {
+        client = manager;
+    }
+
+    /**
+     * Goes back to the built-in patterns, once the client leaves a server.
+     */
+    public static void resetClient() {
+        client = DEFAULT;
+    }
+
+    @Nullable
+    public BulletPattern get(Identifier id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Looks a pattern up by the string a shot stores, which is either a full id or the name of a built-in pattern.
+     */
+    @Nullable
+    public BulletPattern get(String name) {
+        BulletPattern pattern = byName.get(name);
+        // Only ever happens for ids that were written in uppercase by hand
+        return pattern != null ? pattern : byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Nullable
+    public BulletPattern getByRawId(int rawId) {
+        return rawId >= 0 && rawId < byRawId.length ? byRawId[rawId] : null;
+    }
+
+    public BulletPattern require(Identifier id) {
+        BulletPattern pattern = byId.get(id);
+        if (pattern == null) {
+            throw new IllegalArgumentException("Unknown danmaku pattern: " + id);
+        }
+        return pattern;
+    }
+
+    public Collection<BulletPattern> getPatterns() {
+        return byId.values();
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeVarInt(byRawId.length);
+        for (BulletPattern pattern : byRawId) {
+            buf.writeIdentifier(pattern.getId());
+            pattern.getDefinition().write(buf);
+        }
+    }
+
+    public static BulletPatternManager read(PacketByteBuf buf) {
+        int size = buf.readVarInt();
+        Map<Identifier, PatternDefinition> definitions = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            definitions.put(buf.readIdentifier(), PatternDefinition.read(buf));
+        }
+        return new BulletPatternManager(definitions);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.ShapeContext;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The flight of a bullet, worked out in closed form.
+ * <p>
+ * Bullets have no friction, so their velocity only ever changes by their gravity, once per tick
+ * and after they've moved. After {@code n} ticks, a bullet has moved {@code n * v} horizontally,
+ * and {@code n * vy - g * n * (n - 1) / 2} vertically.
+ * <p>
+ * Bullets no player can see go dormant: they skip their ticks, and get moved along that arc every
+ * {@link #DORMANT_STEP} ticks instead. The arc is only checked against blocks, in a few straight
+ * segments, since nobody is there to see what else they would have hit.
+ */
+public final class BulletTrajectory {
+
+    // How many ticks a dormant bullet is moved at once
+    public static final int DORMANT_STEP = 10;
+    // How often bullets look for players, spread out over the ticks by bullet id
+    private static final int WATCH_CHECK_INTERVAL = 10;
+    // Players can get a lot closer between checks, and bullets should be awake before they're tracked
+    private static final double WATCH_MARGIN = 32.0;
+    private static final int SEGMENT_TICKS = 4;
+
+    private BulletTrajectory() {
+    }
+
+    public static boolean shouldCheckWatched(int age, int id) {
+        return Math.floorMod(age + id, WATCH_CHECK_INTERVAL) == 0;
+    }
+
+    public static boolean isWatched(World world, double x, double y, double z) {
+        return world.isPlayerInRange(x, y, z, DanmakuField.TRACKING_RANGE + WATCH_MARGIN);
+    }
+
+    public static double getY(double y, double velocityY, float gravity, int ticks) {
+        return y + velocityY * ticks - gravity * ticks * (ticks - 1) / 2.0;
+    }
+
+    public static double getVelocityY(double velocityY, float gravity, int ticks) {
+        return velocityY - gravity * ticks;
+    }
+
+    /**
+     * Checks if the bullet would have run into a block over the next ticks.
+     */
+    public static boolean hitsBlock(BlockView world, double x, double y, double z,
+                                    double velocityX, double velocityY, double velocityZ, float gravity, int ticks) {
+        Vec3d start = new Vec3d(x, y, z);
+        for (int tick = 0; tick < ticks; tick += SEGMENT_TICKS) {
+            int next = Math.min(tick + SEGMENT_TICKS, ticks);
+            Vec3d end = new Vec3d(x + velocityX * next, getY(y, velocityY, gravity, next), z + velocityZ * next);
+            if (raycastBlocks(world, start, end) != null) {
+                return true;
+            }
+            start = end;
+        }
+        return false;
+    }
+
+    @Nullable
+    public static BlockHitResult raycastBlocks(BlockView world, Vec3d start, Vec3d end) {
+        return BlockView.raycast(start, end, world, (blockView, pos) -> {
+            BlockState state = blockView.getBlockState(pos);
+            VoxelShape shape = state.getCollisionShape(blockView, pos, ShapeContext.absent());
+            return blockView.raycastBlock(start, end, pos, shape, state);
+        }, blockView -> null);
+    }
+}
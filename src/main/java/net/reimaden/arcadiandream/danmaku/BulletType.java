@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityGroup;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.reimaden.arcadiandream.entity.ModEntities;
+import net.reimaden.arcadiandream.item.ModItems;
+import net.reimaden.arcadiandream.item.custom.danmaku.DyeableBullet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The kinds of bullets that can live in a {@link DanmakuField}.
+ * Each type mirrors one of the bullet entities, so sizes and damage rules stay in sync.
+ */
+public enum BulletType {
+
+    CIRCLE,
+    BUBBLE,
+    AMULET;
+
+    private static final BulletType[] BY_ID = values();
+
+    // Only used for rendering, so the same stack can be handed out for every bullet of a color
+    private final Map<Integer, ItemStack> renderStacks = new ConcurrentHashMap<>();
+
+    public static BulletType byId(int id) {
+        return BY_ID[id % BY_ID.length];
+    }
+
+    public static BulletType fromItem(Item item) {
+        if (item == ModItems.BUBBLE_SHOT) {
+            return BUBBLE;
+        } else if (item == ModItems.AMULET_SHOT) {
+            return AMULET;
+        }
+        return CIRCLE;
+    }
+
+    public Item getShotItem() {
+        return switch (this) {
+            case CIRCLE -> ModItems.CIRCLE_SHOT;
+            case BUBBLE -> ModItems.BUBBLE_SHOT;
+            case AMULET -> ModItems.AMULET_SHOT;
+        };
+    }
+
+    public EntityType<?> getEntityType() {
+        return switch (this) {
+            case CIRCLE -> ModEntities.CIRCLE_BULLET;
+            case BUBBLE -> ModEntities.BUBBLE_BULLET;
+            case AMULET -> ModEntities.AMULET_BULLET;
+        };
+    }
+
+    public ItemStack getRenderStack(int color) {
+        return renderStacks.computeIfAbsent(color, c -> {
+            ItemStack stack = new ItemStack(getShotItem());
+            ((DyeableBullet) stack.getItem()).setColor(stack, c);
+            return stack;
+        });
+    }
+
+    public float getWidth() {
+        return getEntityType().getWidth();
+    }
+
+    public float getHeight() {
+        return getEntityType().getHeight();
+    }
+
+    // Amulets are holy, so they smite the undead just like their entity counterpart
+    public float getDamage(Entity target, float power) {
+        if (this == AMULET && target instanceof LivingEntity livingEntity && livingEntity.getGroup() == EntityGroup.UNDEAD) {
+            return power * 2;
+        }
+        return power;
+    }
+}
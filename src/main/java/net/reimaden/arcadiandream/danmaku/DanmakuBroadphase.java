@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.projectile.ProjectileEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.hit.EntityHitResult;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.RaycastContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A uniform grid of every hittable entity in a world, shared by all bullets during a tick.
+ * <p>
+ * Instead of every bullet asking the world for the entities along its path, the grid is built
+ * the first time a bullet needs it in a tick, and each bullet then only tests the entities
+ * in the cells its swept box touches. The narrowphase is the same as {@code ProjectileUtil}'s.
+ */
+public class DanmakuBroadphase {
+
+    // 4 blocks per cell, bullets rarely move further than that in a tick
+    private static final int CELL_SHIFT = 2;
+    // Same margin ProjectileUtil gives every entity's hitbox
+    private static final float ENTITY_MARGIN = 0.3f;
+    // Entities keep moving after the grid is built, so their cells are padded a little
+    private static final double CELL_PADDING = 2.0;
+
+    private final ServerWorld world;
+
+    private final List<Entity> entities = new ArrayList<>();
+    private final Long2ObjectMap<IntArrayList> cells = new Long2ObjectOpenHashMap<>();
+    private int[] stamps = new int[64];
+    private int stamp;
+    private boolean built;
+
+    private int candidatePairs;
+    private int lastCandidatePairs;
+
+    public DanmakuBroadphase(ServerWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Does what {@code ProjectileUtil.getCollision} does, but looks entities up in the grid.
+     */
+    public HitResult getCollision(ProjectileEntity projectile, Predicate<Entity> predicate) {
+        Vec3d start = projectile.getPos();
+        Vec3d velocity = projectile.getVelocity();
+        Vec3d end = start.add(velocity);
+
+        HitResult hitResult = world.raycast(new RaycastContext(start, end, RaycastContext.ShapeType.COLLIDER, RaycastContext.FluidHandling.NONE, projectile));
+        if (hitResult.getType() != HitResult.Type.MISS) {
+            end = hitResult.getPos();
+        }
+
+        Entity entity = raycast(start, end, projectile.getBoundingBox().stretch(velocity), predicate);
+        if (entity != null) {
+            return new EntityHitResult(entity);
+        }
+
+        return hitResult;
+    }
+
+    /**
+     * Finds the closest entity whose hitbox the segment passes through.
+     *
+     * @param sweptBox the bullet's box, stretched by how far it moves this tick
+     */
+    @Nullable
+    public Entity raycast(Vec3d start, Vec3d end, Box sweptBox, Predicate<Entity> predicate) {
+        build();
+
+        // A new stamp per query, so entities spanning several cells are only tested once
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        Entity closest = null;
+        double closestDistance = Double.MAX_VALUE;
+
+        int minX = MathHelper.floor(sweptBox.minX) >> CELL_SHIFT;
+        int minY = MathHelper.floor(sweptBox.minY) >> CELL_SHIFT;
+        int minZ = MathHelper.floor(sweptBox.minZ) >> CELL_SHIFT;
+        int maxX = MathHelper.floor(sweptBox.maxX) >> CELL_SHIFT;
+        int maxY = MathHelper.floor(sweptBox.maxY) >> CELL_SHIFT;
+        int maxZ = MathHelper.floor(sweptBox.maxZ) >> CELL_SHIFT;
+
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellY = minY; cellY <= maxY; cellY++) {
+                for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                    IntArrayList cell = cells.get(BlockPos.asLong(cellX, cellY, cellZ));
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (int j = 0; j < cell.size(); j++) {
+                        int index = cell.getInt(j);
+                        if (stamps[index] == stamp) {
+                            continue;
+                        }
+                        stamps[index] = stamp;
+                        candidatePairs++;
+
+                        Entity entity = entities.get(index);
+                        if (!predicate.test(entity)) {
+                            continue;
+                        }
+
+                        Vec3d hit = entity.getBoundingBox().expand(ENTITY_MARGIN).raycast(start, end).orElse(null);
+                        if (hit == null) {
+                            continue;
+                        }
+
+                        double distance = start.squaredDistanceTo(hit);
+                        if (distance < closestDistance) {
+                            closest = entity;
+                            closestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+
+        return closest;
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        built = true;
+
+        // Keep the cells that were used last tick around, and let the rest go
+        ObjectIterator<Long2ObjectMap.Entry<IntArrayList>> iterator = cells.long2ObjectEntrySet().iterator();
+        while (iterator.hasNext()) {
+            IntArrayList cell = iterator.next().getValue();
+            if (cell.isEmpty()) {
+                iterator.remove();
+            } else {
+                cell.clear();
+            }
+        }
+        entities.clear();
+
+        for (Entity entity : world.iterateEntities()) {
+            if (entity.isSpectator() || !entity.canHit()) {
+                continue;
+            }
+
+            int index = entities.size();
+            entities.add(entity);
+
+            Box box = entity.getBoundingBox().expand(CELL_PADDING);
+            int minX = MathHelper.floor(box.minX) >> CELL_SHIFT;
+            int minY = MathHelper.floor(box.minY) >> CELL_SHIFT;
+            int minZ = MathHelper.floor(box.minZ) >> CELL_SHIFT;
+            int maxX = MathHelper.floor(box.maxX) >> CELL_SHIFT;
+            int maxY = MathHelper.floor(box.maxY) >> CELL_SHIFT;
+            int maxZ = MathHelper.floor(box.maxZ) >> CELL_SHIFT;
+
+            for (int cellX = minX; cellX <= maxX; cellX++) {
+                for (int cellY = minY; cellY <= maxY; cellY++) {
+                    for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                        cells.computeIfAbsent(BlockPos.asLong(cellX, cellY, cellZ), key -> new IntArrayList()).add(index);
+                    }
+                }
+            }
+        }
+
+        if (stamps.length < entities.size()) {
+            stamps = new int[Math.max(entities.size(), stamps.length * 2)];
+        } else {
+            Arrays.fill(stamps, 0, entities.size(), 0);
+        }
+        stamp = 0;
+    }
+
+    /**
+     * Called once the world is done ticking, so the next tick starts with a fresh grid.
+     */
+    public void endTick() {
+        built = false;
+        entities.clear();
+        lastCandidatePairs = candidatePairs;
+        candidatePairs = 0;
+    }
+
+    /**
+     * How many bullet and entity pairs reached the narrowphase during the last tick.
+     */
+    public int getLastCandidatePairs() {
+        return lastCandidatePairs;
+    }
+}
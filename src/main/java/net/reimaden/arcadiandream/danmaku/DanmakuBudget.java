@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntPredicate;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
+
+/**
+ * Keeps count of the live bullets of a {@link DanmakuField}, in total, per chunk and per owner.
+ * <p>
+ * Every chunk and owner gets a queue of bullet ids in the order they were fired, so the oldest
+ * bullet is always at the front when a cap is hit. Bullets that ended on their own are not taken
+ * out of the queues right away: they're skipped once they reach the front instead.
+ * <p>
+ * Bullets are counted against the chunk they were fired from, not the one they're currently in.
+ */
+public class DanmakuBudget {
+
+    public static final int NONE = -1;
+
+    private final Long2IntMap chunkCounts = new Long2IntOpenHashMap();
+    private final Int2IntMap ownerCounts = new Int2IntOpenHashMap();
+    private final Long2ObjectMap<IntArrayFIFOQueue> chunkQueues = new Long2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<IntArrayFIFOQueue> ownerQueues = new Int2ObjectOpenHashMap<>();
+    private int count;
+
+    private long worldEvictions;
+    private long chunkEvictions;
+    private long ownerEvictions;
+
+    public void track(int bulletId, long chunk, int ownerId, IntPredicate alive) {
+        count++;
+
+        chunkCounts.addTo(chunk, 1);
+        enqueue(chunkQueues.computeIfAbsent(chunk, key -> new IntArrayFIFOQueue()), bulletId, alive);
+
+        if (ownerId != DanmakuField.NO_OWNER) {
+            ownerCounts.addTo(ownerId, 1);
+            enqueue(ownerQueues.computeIfAbsent(ownerId, key -> new IntArrayFIFOQueue()), bulletId, alive);
+        }
+    }
+
+    // Dead ids at the front are dropped while we're at it, so the queues don't keep growing
+    private static void enqueue(IntArrayFIFOQueue queue, int bulletId, IntPredicate alive) {
+        while (!queue.isEmpty() && !alive.test(queue.firstInt())) {
+            queue.dequeueInt();
+        }
+        queue.enqueue(bulletId);
+    }
+
+    public void release(long chunk, int ownerId) {
+        count--;
+
+        if (chunkCounts.addTo(chunk, -1) <= 1) {
+            chunkCounts.remove(chunk);
+            chunkQueues.remove(chunk);
+        }
+
+        if (ownerId != DanmakuField.NO_OWNER && ownerCounts.addTo(ownerId, -1) <= 1) {
+            ownerCounts.remove(ownerId);
+            ownerQueues.remove(ownerId);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        chunkCounts.clear();
+        ownerCounts.clear();
+        chunkQueues.clear();
+        ownerQueues.clear();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getChunkCount(long chunk) {
+        return chunkCounts.get(chunk);
+    }
+
+    public int getOwnerCount(int ownerId) {
+        return ownerCounts.get(ownerId);
+    }
+
+    /**
+     * @return the id of the oldest live bullet fired from the chunk, or {@link #NONE}
+     */
+    public int pollChunk(long chunk, IntPredicate alive) {
+        return poll(chunkQueues.get(chunk), alive);
+    }
+
+    /**
+     * @return the id of the oldest live bullet fired by the owner, or {@link #NONE}
+     */
+    public int pollOwner(int ownerId, IntPredicate alive) {
+        return poll(ownerQueues.get(ownerId), alive);
+    }
+
+    private static int poll(IntArrayFIFOQueue queue, IntPredicate alive) {
+        if (queue == null) {
+            return NONE;
+        }
+
+        while (!queue.isEmpty()) {
+            int bulletId = queue.dequeueInt();
+            if (alive.test(bulletId)) {
+                return bulletId;
+            }
+        }
+
+        return NONE;
+    }
+
+    public void onWorldEviction() {
+        worldEvictions++;
+        ModMetrics.WORLD_EVICTIONS.inc();
+    }
+
+    public void onChunkEviction() {
+        chunkEvictions++;
+        ModMetrics.CHUNK_EVICTIONS.inc();
+    }
+
+    public void onOwnerEviction() {
+        ownerEvictions++;
+        ModMetrics.OWNER_EVICTIONS.inc();
+    }
+
+    public long getWorldEvictions() {
+        return worldEvictions;
+    }
+
+    public long getChunkEvictions() {
+        return chunkEvictions;
+    }
+
+    public long getOwnerEvictions() {
+        return ownerEvictions;
+    }
+}
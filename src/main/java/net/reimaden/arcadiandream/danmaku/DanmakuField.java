@@ -0,0 +1,671 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.floats.FloatList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.World;
+import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.damage.ModDamageSources;
+import net.reimaden.arcadiandream.entity.ModEntities;
+import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import net.reimaden.arcadiandream.item.custom.danmaku.BaseShotItem;
+import net.reimaden.arcadiandream.jfr.BulletCancelSweepEvent;
+import net.reimaden.arcadiandream.jfr.BulletHitEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
+import net.reimaden.arcadiandream.networking.ModMessages;
+import net.reimaden.arcadiandream.particle.ModParticles;
+import net.reimaden.arcadiandream.sound.ModSounds;
+import net.reimaden.arcadiandream.util.TickProfiler;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Simulates the pattern bullets of a {@link ServerWorld} without spawning an entity for each of them.
+ * <p>
+ * Every bullet is a slot in a set of parallel primitive arrays, and the whole field is ticked in one loop
+ * at the end of the world tick. The physics match {@link net.reimaden.arcadiandream.entity.custom.BaseBulletEntity}:
+ * there is no air or water friction, fluids never push bullets, owners are never hit,
+ * and bullets despawn on impact or once their duration runs out.
+ * <p>
+ * Slots stay stable for the duration of a tick. Removed bullets are only flagged,
+ * and the arrays are compacted in spawn order once every bullet has been ticked.
+ * <p>
+ * How many bullets can be alive at once is capped per world, per chunk and per owner.
+ * Whenever a new bullet would go over a cap, the oldest bullet it counts against is removed first.
+ * <p>
+ * Bullets no player can see go dormant, and are moved along their arc a few ticks at a time,
+ * see {@link BulletTrajectory}.
+ * <p>
+ * Clients never see the bullets themselves. They get one {@link DanmakuVolley} per pattern
+ * and simulate it on their own, plus a batch of ids for the bullets that ended early.
+ */
+public class DanmakuField {
+
+    public static final int NO_OWNER = -1;
+    // Same distance bullet entities are tracked at
+    public static final double TRACKING_RANGE = ModEntities.DANMAKU_RANGE * 16;
+    // Bullets keep flying after being sent, so removals reach a little further
+    private static final double REMOVAL_RANGE = TRACKING_RANGE * 2;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int AWAKE = -1;
+    private static final int UNKNOWN_IMPACT = -1;
+    private static final int PRUNE_INTERVAL = 200;
+
+    private final ServerWorld world;
+    private final DanmakuBroadphase broadphase;
+    private final DanmakuBudget budget = new DanmakuBudget();
+    private final DanmakuImpactCache impacts;
+    private final Random random = Random.create();
+
+    private final IntList removedIds = new IntArrayList();
+    private final DoubleList removedX = new DoubleArrayList();
+    private final DoubleList removedZ = new DoubleArrayList();
+
+    private final Long2ObjectMap<IntArrayList> sectionIndex = new Long2ObjectOpenHashMap<>();
+    private boolean sectionIndexDirty;
+
+    private int size;
+    private int nextId;
+    private int ticks;
+    // Everything before this slot has already been removed this tick
+    private int oldestCursor;
+
+    private int[] id = new int[INITIAL_CAPACITY];
+    private BulletArchetype[] archetype = new BulletArchetype[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] z = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+    private double[] velocityZ = new double[INITIAL_CAPACITY];
+    private int[] age = new int[INITIAL_CAPACITY];
+    private int[] owner = new int[INITIAL_CAPACITY];
+    private long[] chunk = new long[INITIAL_CAPACITY];
+    // Ticks a dormant bullet hasn't been moved for yet, or -1 if it's awake
+    private int[] dormantTicks = new int[INITIAL_CAPACITY];
+    // The age at which the bullet might hit a block next, see DanmakuImpactCache
+    private int[] impactAge = new int[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+
+    public DanmakuField(ServerWorld world) {
+        this.world = world;
+        this.broadphase = new DanmakuBroadphase(world);
+        this.impacts = new DanmakuImpactCache(world);
+    }
+
+    public static DanmakuField get(ServerWorld world) {
+        return ((IDanmakuFieldHolder) world).getDanmakuField();
+    }
+
+    public static boolean isEnabled(World world) {
+        return !world.isClient() && ArcadianDream.CONFIG.danmakuFieldOptions.enabled();
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    public DanmakuBroadphase getBroadphase() {
+        return broadphase;
+    }
+
+    public DanmakuBudget getBudget() {
+        return budget;
+    }
+
+    public DanmakuImpactCache getImpacts() {
+        return impacts;
+    }
+
+    /**
+     * Adds the live bullets of every type to the counts, indexed by {@link BulletType} ordinal.
+     */
+    public void countByType(int[] counts) {
+        for (int i = 0; i < size; i++) {
+            if (!removed[i]) {
+                counts[archetype[i].getType().ordinal()]++;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fires a whole pattern from the owner's eyes, and sends it to nearby players as a single volley.
+     */
+    public void fire(BulletArchetype archetype, LivingEntity owner, BulletPattern pattern, float pitch, float yaw, int density) {
+        DanmakuVolley volley = new DanmakuVolley(archetype, pattern, owner.getId(), owner.getX(), owner.getEyeY() - 0.1, owner.getZ(),
+                pitch, yaw, density, pattern.getInheritedVelocity(owner), random.nextLong());
+
+        // Players fire with the seed their client has already shown the volley with
+        if (owner instanceof ServerPlayerEntity player) {
+            DanmakuPrediction.Sequence sequence = DanmakuPrediction.get(player);
+            if (sequence != null) {
+                sequence.apply(volley);
+            }
+        }
+
+        fire(volley);
+    }
+
+    public void fire(DanmakuVolley volley) {
+        volley.setFirstBulletId(nextId);
+        volley.forEachBullet((bulletId, velocityX, velocityY, velocityZ) ->
+                spawn(volley.getArchetype(), volley.getOwnerId(), volley.getX(), volley.getY(), volley.getZ(), velocityX, velocityY, velocityZ));
+
+        PacketByteBuf data = PacketByteBufs.create();
+        volley.write(data);
+
+        for (ServerPlayerEntity player : PlayerLookup.around(world, new Vec3d(volley.getX(), volley.getY(), volley.getZ()), TRACKING_RANGE)) {
+            ServerPlayNetworking.send(player, ModMessages.DANMAKU_VOLLEY, data);
+        }
+    }
+
+    private void spawn(BulletArchetype archetype, int ownerId, double x, double y, double z, double velocityX, double velocityY, double velocityZ) {
+        long chunkPos = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(MathHelper.floor(x)), ChunkSectionPos.getSectionCoord(MathHelper.floor(z)));
+        enforceBudget(chunkPos, ownerId);
+        ensureCapacity(size + 1);
+
+        int i = size++;
+        this.id[i] = nextId++;
+        this.archetype[i] = archetype;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+        this.velocityX[i] = velocityX;
+        this.velocityY[i] = velocityY;
+        this.velocityZ[i] = velocityZ;
+        this.age[i] = 0;
+        this.owner[i] = ownerId;
+        this.chunk[i] = chunkPos;
+        this.dormantTicks[i] = AWAKE;
+        this.impactAge[i] = UNKNOWN_IMPACT;
+        this.removed[i] = false;
+
+        budget.track(this.id[i], chunkPos, ownerId, this::isAlive);
+        sectionIndexDirty = true;
+    }
+
+    // Makes room for one more bullet, going from the smallest cap to the largest
+    private void enforceBudget(long chunkPos, int ownerId) {
+        if (ownerId != NO_OWNER && budget.getOwnerCount(ownerId) >= ArcadianDream.CONFIG.danmakuFieldOptions.maxBulletsPerOwner()) {
+            evict(budget.pollOwner(ownerId, this::isAlive));
+            budget.onOwnerEviction();
+        }
+
+        if (budget.getChunkCount(chunkPos) >= ArcadianDream.CONFIG.danmakuFieldOptions.maxBulletsPerChunk()) {
+            evict(budget.pollChunk(chunkPos, this::isAlive));
+            budget.onChunkEviction();
+        }
+
+        if (budget.getCount() >= ArcadianDream.CONFIG.danmakuFieldOptions.maxBullets()) {
+            // Bullets are kept in the order they were fired, so the oldest one is always up front
+            while (oldestCursor < size && removed[oldestCursor]) {
+                oldestCursor++;
+            }
+            if (oldestCursor < size) {
+                remove(oldestCursor);
+                budget.onWorldEviction();
+            }
+        }
+    }
+
+    private void evict(int bulletId) {
+        int i = indexOf(bulletId);
+        if (i >= 0 && !removed[i]) {
+            remove(i);
+        }
+    }
+
+    private int indexOf(int bulletId) {
+        // Ids only ever go up, and compacting keeps them in order
+        return Arrays.binarySearch(id, 0, size, bulletId);
+    }
+
+    private boolean isAlive(int bulletId) {
+        int i = indexOf(bulletId);
+        return i >= 0 && !removed[i];
+    }
+
+    public void tick() {
+        long start = TickProfiler.begin();
+        if (size > 0) {
+            // Bullets fired while ticking are appended, and will be ticked next time
+            int end = size;
+            for (int i = 0; i < end; i++) {
+                if (!removed[i]) {
+                    tickBullet(i);
+                }
+            }
+
+            compact();
+            sectionIndexDirty = true;
+        }
+
+        if (++ticks % PRUNE_INTERVAL == 0) {
+            impacts.prune(this::isAlive);
+        }
+
+        sendRemovals();
+        broadphase.endTick();
+        impacts.endTick();
+        TickProfiler.end(TickProfiler.Section.DANMAKU_FIELD, start);
+    }
+
+    private void tickBullet(int i) {
+        age[i]++;
+
+        // Bullets don't wait for chunks to load back in
+        if (!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(MathHelper.floor(x[i])), ChunkSectionPos.getSectionCoord(MathHelper.floor(z[i])))) {
+            remove(i);
+            return;
+        }
+
+        if (dormantTicks[i] == AWAKE && BulletTrajectory.shouldCheckWatched(age[i], id[i]) && !BulletTrajectory.isWatched(world, x[i], y[i], z[i])) {
+            dormantTicks[i] = 0;
+        }
+        if (dormantTicks[i] != AWAKE) {
+            tickDormant(i);
+            return;
+        }
+
+        Vec3d start = new Vec3d(x[i], y[i], z[i]);
+        Vec3d end = start.add(velocityX[i], velocityY[i], velocityZ[i]);
+
+        // Only raycast blocks once the bullet could actually hit one
+        BlockHitResult blockHit = null;
+        if (age[i] >= getImpactAge(i)) {
+            blockHit = BulletTrajectory.raycastBlocks(world, start, end);
+            if (blockHit != null) {
+                end = blockHit.getPos();
+            } else {
+                impactAge[i] = UNKNOWN_IMPACT;
+            }
+        }
+
+        Entity target = raycastEntities(i, start, end);
+        if (target != null) {
+            onEntityHit(i, target);
+            return;
+        }
+        if (blockHit != null) {
+            onBlockHit(i);
+            return;
+        }
+
+        // No friction, so the velocity is only ever changed by gravity
+        x[i] += velocityX[i];
+        y[i] += velocityY[i];
+        z[i] += velocityZ[i];
+        velocityY[i] -= archetype[i].getGravity();
+
+        if (y[i] < world.getBottomY() - 64) {
+            remove(i);
+        } else if (age[i] >= archetype[i].getDuration()) {
+            // Clients time bullets out on their own, so there's nothing to tell them
+            despawnParticle(i);
+            discard(i);
+        }
+    }
+
+    // Nobody can see the bullet, so it's only moved every few ticks, and only blocks can stop it
+    private void tickDormant(int i) {
+        int ticks = ++dormantTicks[i];
+        boolean expired = age[i] >= archetype[i].getDuration();
+        boolean watched = BulletTrajectory.shouldCheckWatched(age[i], id[i]) && BulletTrajectory.isWatched(world, x[i], y[i], z[i]);
+        if (ticks < BulletTrajectory.DORMANT_STEP && !expired && !watched) {
+            return;
+        }
+
+        float gravity = archetype[i].getGravity();
+        // The prediction was made from the same arc, so it still covers the skipped ticks
+        if (impactAge[i] <= age[i]) {
+            if (BulletTrajectory.hitsBlock(world, x[i], y[i], z[i], velocityX[i], velocityY[i], velocityZ[i], gravity, ticks)) {
+                remove(i);
+                return;
+            }
+            impactAge[i] = UNKNOWN_IMPACT;
+        }
+
+        x[i] += velocityX[i] * ticks;
+        y[i] = BulletTrajectory.getY(y[i], velocityY[i], gravity, ticks);
+        z[i] += velocityZ[i] * ticks;
+        velocityY[i] = BulletTrajectory.getVelocityY(velocityY[i], gravity, ticks);
+        dormantTicks[i] = watched ? AWAKE : 0;
+
+        if (y[i] < world.getBottomY() - 64) {
+            remove(i);
+        } else if (expired) {
+            discard(i);
+        }
+    }
+
+    private int getImpactAge(int i) {
+        if (impactAge[i] == UNKNOWN_IMPACT) {
+            int ticks = impacts.predict(id[i], x[i], y[i], z[i], velocityX[i], velocityY[i], velocityZ[i],
+                    archetype[i].getGravity(), archetype[i].getDuration() - age[i] + 1);
+            impactAge[i] = ticks == DanmakuImpactCache.NO_IMPACT ? DanmakuImpactCache.NO_IMPACT : age[i] + ticks;
+        }
+        return impactAge[i];
+    }
+
+    /**
+     * Called whenever a block changes, so bullets flying through its section look at their path again.
+     */
+    public void onBlockChanged(BlockPos pos) {
+        IntArrayList ids = impacts.invalidate(pos);
+        if (ids == null) {
+            return;
+        }
+
+        for (int j = 0; j < ids.size(); j++) {
+            int i = indexOf(ids.getInt(j));
+            if (i >= 0 && !removed[i]) {
+                impactAge[i] = UNKNOWN_IMPACT;
+            }
+        }
+    }
+
+    @Nullable
+    private Entity raycastEntities(int i, Vec3d start, Vec3d end) {
+        BulletType bulletType = archetype[i].getType();
+        float halfWidth = bulletType.getWidth() / 2;
+        int ownerId = owner[i];
+
+        Box box = new Box(x[i] - halfWidth, y[i], z[i] - halfWidth, x[i] + halfWidth, y[i] + bulletType.getHeight(), z[i] + halfWidth)
+                .stretch(velocityX[i], velocityY[i], velocityZ[i]);
+
+        return broadphase.raycast(start, end, box, entity -> canHit(entity, ownerId));
+    }
+
+    // Same rules as ProjectileEntity, except that the owner is always ignored
+    private static boolean canHit(Entity entity, int ownerId) {
+        return !entity.isSpectator() && entity.isAlive() && entity.canHit() && entity.getId() != ownerId;
+    }
+
+    private void onEntityHit(int i, Entity target) {
+        Entity owner = getOwner(i);
+
+        // Fairies don't hurt their own kind, but the bullet is still used up
+        boolean friendlyFire = target instanceof FairyEntity && owner != null && target.getClass().equals(owner.getClass());
+        if (!friendlyFire) {
+            BulletHitEvent event = new BulletHitEvent();
+            event.begin();
+            float damage = archetype[i].getType().getDamage(target, archetype[i].getPower());
+            target.damage(ModDamageSources.danmaku(owner), damage);
+            event.commit(target, damage, age[i]);
+            ModMetrics.BULLET_HITS.inc();
+        }
+
+        onBlockHit(i);
+    }
+
+    private void onBlockHit(int i) {
+        despawnParticle(i);
+        world.playSound(null, x[i], y[i], z[i], ModSounds.ENTITY_DANMAKU_HIT, SoundCategory.NEUTRAL, 0.8f, BaseShotItem.getSoundPitch(random));
+        remove(i);
+    }
+
+    @Nullable
+    private Entity getOwner(int i) {
+        return owner[i] != NO_OWNER ? world.getEntityById(owner[i]) : null;
+    }
+
+    /**
+     * Cancels every bullet within the radius of the center that wasn't fired by the exempt entity,
+     * both the ones in the field and the bullet entities. The radius reaches into the corners,
+     * so the area is a cube just like the box bombs have always cleared.
+     * <p>
+     * All the cancel effects are sent as one packet, instead of a particle packet per bullet.
+     *
+     * @return how many bullets were cancelled
+     */
+    public int cancelWithin(Vec3d center, double radius, @Nullable Entity exempt) {
+        BulletCancelSweepEvent event = new BulletCancelSweepEvent();
+        event.begin();
+
+        int exemptId = exempt != null ? exempt.getId() : NO_OWNER;
+        FloatList effects = new FloatArrayList();
+
+        Box box = new Box(center, center).expand(radius);
+        for (BaseBulletEntity bulletEntity : world.getEntitiesByClass(BaseBulletEntity.class, box, Entity::isAlive)) {
+            if (exempt != null && bulletEntity.getOwner() == exempt) {
+                continue;
+            }
+
+            bulletEntity.kill();
+            addEffect(effects, center, bulletEntity.getX(), bulletEntity.getBodyY(0.5), bulletEntity.getZ());
+        }
+
+        updateSectionIndex();
+        int minX = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.minX));
+        int minY = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.minY));
+        int minZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.minZ));
+        int maxX = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.maxX));
+        int maxY = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.maxY));
+        int maxZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(box.maxZ));
+
+        for (int sectionX = minX; sectionX <= maxX; sectionX++) {
+            for (int sectionY = minY; sectionY <= maxY; sectionY++) {
+                for (int sectionZ = minZ; sectionZ <= maxZ; sectionZ++) {
+                    IntArrayList section = sectionIndex.get(ChunkSectionPos.asLong(sectionX, sectionY, sectionZ));
+                    if (section == null) {
+                        continue;
+                    }
+
+                    for (int j = 0; j < section.size(); j++) {
+                        int i = section.getInt(j);
+                        if (removed[i] || (exemptId != NO_OWNER && owner[i] == exemptId) || !box.contains(x[i], y[i], z[i])) {
+                            continue;
+                        }
+
+                        remove(i);
+                        addEffect(effects, center, x[i], y[i] + archetype[i].getType().getHeight() / 2, z[i]);
+                    }
+                }
+            }
+        }
+
+        int cancelled = effects.size() / 3;
+        if (cancelled > 0) {
+            sendCancelEffects(center, radius, effects);
+        }
+
+        event.commit(radius, cancelled);
+        ModMetrics.BULLETS_CANCELLED.add(cancelled);
+        return cancelled;
+    }
+
+    private static void addEffect(FloatList effects, Vec3d center, double x, double y, double z) {
+        effects.add((float) (x - center.getX()));
+        effects.add((float) (y - center.getY()));
+        effects.add((float) (z - center.getZ()));
+    }
+
+    private void sendCancelEffects(Vec3d center, double radius, FloatList effects) {
+        PacketByteBuf data = PacketByteBufs.create();
+        data.writeDouble(center.getX());
+        data.writeDouble(center.getY());
+        data.writeDouble(center.getZ());
+        data.writeVarInt(effects.size() / 3);
+        for (int j = 0; j < effects.size(); j++) {
+            data.writeFloat(effects.getFloat(j));
+        }
+
+        // Particles are only sent to players within 32 blocks, so the effects are too
+        for (ServerPlayerEntity player : PlayerLookup.around(world, center, radius + 32)) {
+            ServerPlayNetworking.send(player, ModMessages.DANMAKU_CANCEL, data);
+        }
+    }
+
+    // Bullets only get indexed by section when something asks for it, which is rare compared to ticking
+    private void updateSectionIndex() {
+        if (!sectionIndexDirty) {
+            return;
+        }
+        sectionIndexDirty = false;
+
+        ObjectIterator<Long2ObjectMap.Entry<IntArrayList>> iterator = sectionIndex.long2ObjectEntrySet().iterator();
+        while (iterator.hasNext()) {
+            IntArrayList section = iterator.next().getValue();
+            if (section.isEmpty()) {
+                iterator.remove();
+            } else {
+                section.clear();
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            long key = BlockPos.asLong(MathHelper.floor(x[i]), MathHelper.floor(y[i]), MathHelper.floor(z[i]));
+            sectionIndex.computeIfAbsent(ChunkSectionPos.fromBlockPos(key), k -> new IntArrayList()).add(i);
+        }
+    }
+
+    private void despawnParticle(int i) {
+        world.spawnParticles(ModParticles.BULLET_DESPAWN,
+                x[i], y[i] + archetype[i].getType().getHeight() / 2, z[i],
+                1, 0, 0, 0, 0);
+    }
+
+    private void discard(int i) {
+        removed[i] = true;
+        budget.release(chunk[i], owner[i]);
+    }
+
+    private void remove(int i) {
+        discard(i);
+
+        removedIds.add(id[i]);
+        removedX.add(x[i]);
+        removedZ.add(z[i]);
+    }
+
+    // Tells players about every bullet that ended early this tick, all in one packet each
+    private void sendRemovals() {
+        if (removedIds.isEmpty()) {
+            return;
+        }
+
+        for (ServerPlayerEntity player : world.getPlayers()) {
+            IntList ids = new IntArrayList();
+            for (int j = 0; j < removedIds.size(); j++) {
+                double dx = removedX.getDouble(j) - player.getX();
+                double dz = removedZ.getDouble(j) - player.getZ();
+                if (dx * dx + dz * dz < REMOVAL_RANGE * REMOVAL_RANGE) {
+                    ids.add(removedIds.getInt(j));
+                }
+            }
+            if (ids.isEmpty()) {
+                continue;
+            }
+
+            PacketByteBuf data = PacketByteBufs.create();
+            data.writeIntList(ids);
+            ServerPlayNetworking.send(player, ModMessages.DANMAKU_REMOVE, data);
+        }
+
+        removedIds.clear();
+        removedX.clear();
+        removedZ.clear();
+    }
+
+    public void clear() {
+        Arrays.fill(removed, 0, size, false);
+        Arrays.fill(archetype, 0, size, null);
+        size = 0;
+        oldestCursor = 0;
+        budget.clear();
+        impacts.clear();
+        sectionIndexDirty = true;
+    }
+
+    // Moves the surviving bullets to the front, keeping them in the order they were fired
+    private void compact() {
+        int alive = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            if (alive != i) {
+                move(i, alive);
+            }
+            alive++;
+        }
+
+        Arrays.fill(removed, alive, size, false);
+        Arrays.fill(archetype, alive, size, null);
+        size = alive;
+        oldestCursor = 0;
+    }
+
+    private void move(int from, int to) {
+        id[to] = id[from];
+        archetype[to] = archetype[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        z[to] = z[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        velocityZ[to] = velocityZ[from];
+        age[to] = age[from];
+        owner[to] = owner[from];
+        chunk[to] = chunk[from];
+        dormantTicks[to] = dormantTicks[from];
+        impactAge[to] = impactAge[from];
+        removed[to] = false;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= id.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, id.length * 2);
+        id = Arrays.copyOf(id, newCapacity);
+        archetype = Arrays.copyOf(archetype, newCapacity);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        velocityX = Arrays.copyOf(velocityX, newCapacity);
+        velocityY = Arrays.copyOf(velocityY, newCapacity);
+        velocityZ = Arrays.copyOf(velocityZ, newCapacity);
+        age = Arrays.copyOf(age, newCapacity);
+        owner = Arrays.copyOf(owner, newCapacity);
+        chunk = Arrays.copyOf(chunk, newCapacity);
+        dormantTicks = Arrays.copyOf(dormantTicks, newCapacity);
+        impactAge = Arrays.copyOf(impactAge, newCapacity);
+        removed = Arrays.copyOf(removed, newCapacity);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntPredicate;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Works out when a bullet will first run into a block, so it doesn't have to raycast every tick.
+ * <p>
+ * The arc of a bullet is walked once, one tick at a time, stepping through the chunk sections each
+ * tick's segment passes with a 3D DDA. Segments that only pass through empty sections can't hit anything.
+ * The others get a real raycast, but only while predicting. Every section a bullet's arc passes through
+ * is remembered, and a block changing in one of those sections makes the prediction stale again.
+ */
+public class DanmakuImpactCache {
+
+    /**
+     * The bullet doesn't hit anything before it runs out of time.
+     */
+    public static final int NO_IMPACT = Integer.MAX_VALUE;
+    // Predictions are cut short after this many ticks, and picked up again from there
+    private static final int MAX_PREDICTED_TICKS = 200;
+
+    private final ServerWorld world;
+    // Bullet ids per section, some of which may have been removed already
+    private final Long2ObjectMap<IntArrayList> pathIndex = new Long2ObjectOpenHashMap<>();
+
+    private long lastSection;
+    private int predictions;
+    private int lastPredictions;
+
+    public DanmakuImpactCache(ServerWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * @param ticks how many more ticks the bullet will fly for at most
+     * @return how many ticks from now the bullet has to raycast again, with {@code 0} being the current tick,
+     * or {@link #NO_IMPACT}
+     */
+    public int predict(int bulletId, double x, double y, double z, double velocityX, double velocityY, double velocityZ,
+                       float gravity, int ticks) {
+        predictions++;
+        lastSection = Long.MAX_VALUE;
+
+        int limit = Math.min(ticks, MAX_PREDICTED_TICKS);
+        for (int tick = 0; tick < limit; tick++) {
+            double endX = x + velocityX;
+            double endY = y + velocityY;
+            double endZ = z + velocityZ;
+
+            SegmentResult result = traverse(bulletId, x, y, z, endX, endY, endZ);
+            if (result == SegmentResult.UNLOADED) {
+                return tick;
+            }
+            if (result == SegmentResult.OCCUPIED && BulletTrajectory.raycastBlocks(world, new Vec3d(x, y, z), new Vec3d(endX, endY, endZ)) != null) {
+                return tick;
+            }
+
+            x = endX;
+            y = endY;
+            z = endZ;
+            velocityY -= gravity;
+        }
+
+        return limit < ticks ? limit : NO_IMPACT;
+    }
+
+    // Amanatides and Woo, with sections as the grid
+    private SegmentResult traverse(int bulletId, double startX, double startY, double startZ, double endX, double endY, double endZ) {
+        int sectionX = ChunkSectionPos.getSectionCoord(MathHelper.floor(startX));
+        int sectionY = ChunkSectionPos.getSectionCoord(MathHelper.floor(startY));
+        int sectionZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(startZ));
+        int lastX = ChunkSectionPos.getSectionCoord(MathHelper.floor(endX));
+        int lastY = ChunkSectionPos.getSectionCoord(MathHelper.floor(endY));
+        int lastZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(endZ));
+
+        double dx = endX - startX;
+        double dy = endY - startY;
+        double dz = endZ - startZ;
+        int stepX = (int) Math.signum(dx);
+        int stepY = (int) Math.signum(dy);
+        int stepZ = (int) Math.signum(dz);
+        // How far along the segment the next section boundary is, and how far apart boundaries are
+        double deltaX = stepX == 0 ? Double.MAX_VALUE : 16.0 / Math.abs(dx);
+        double deltaY = stepY == 0 ? Double.MAX_VALUE : 16.0 / Math.abs(dy);
+        double deltaZ = stepZ == 0 ? Double.MAX_VALUE : 16.0 / Math.abs(dz);
+        double maxX = stepX == 0 ? Double.MAX_VALUE : boundary(startX, sectionX, stepX) / Math.abs(dx);
+        double maxY = stepY == 0 ? Double.MAX_VALUE : boundary(startY, sectionY, stepY) / Math.abs(dy);
+        double maxZ = stepZ == 0 ? Double.MAX_VALUE : boundary(startZ, sectionZ, stepZ) / Math.abs(dz);
+
+        SegmentResult result = SegmentResult.EMPTY;
+        while (true) {
+            SegmentResult section = visit(bulletId, sectionX, sectionY, sectionZ);
+            if (section == SegmentResult.UNLOADED) {
+                return section;
+            }
+            if (section == SegmentResult.OCCUPIED) {
+                result = section;
+            }
+
+            if (sectionX == lastX && sectionY == lastY && sectionZ == lastZ) {
+                return result;
+            }
+
+            if (maxX < maxY && maxX < maxZ) {
+                if (maxX > 1.0) {
+                    return result;
+                }
+                sectionX += stepX;
+                maxX += deltaX;
+            } else if (maxY < maxZ) {
+                if (maxY > 1.0) {
+                    return result;
+                }
+                sectionY += stepY;
+                maxY += deltaY;
+            } else {
+                if (maxZ > 1.0) {
+                    return result;
+                }
+                sectionZ += stepZ;
+                maxZ += deltaZ;
+            }
+        }
+    }
+
+    private static double boundary(double start, int section, int step) {
+        double edge = ChunkSectionPos.getBlockCoord(step > 0 ? section + 1 : section);
+        return Math.abs(edge - start);
+    }
+
+    private SegmentResult visit(int bulletId, int sectionX, int sectionY, int sectionZ) {
+        WorldChunk chunk = world.getChunkManager().getWorldChunk(sectionX, sectionZ);
+        if (chunk == null) {
+            return SegmentResult.UNLOADED;
+        }
+
+        long key = ChunkSectionPos.asLong(sectionX, sectionY, sectionZ);
+        // Bullets usually spend a few ticks in each section
+        if (key != lastSection) {
+            lastSection = key;
+            pathIndex.computeIfAbsent(key, k -> new IntArrayList()).add(bulletId);
+        }
+
+        ChunkSection section = getSection(chunk, sectionY);
+        return section == null || section.isEmpty() ? SegmentResult.EMPTY : SegmentResult.OCCUPIED;
+    }
+
+    @Nullable
+    private ChunkSection getSection(WorldChunk chunk, int sectionY) {
+        int index = world.sectionCoordToIndex(sectionY);
+        ChunkSection[] sections = chunk.getSectionArray();
+        return index >= 0 && index < sections.length ? sections[index] : null;
+    }
+
+    /**
+     * @return the ids of the bullets whose predictions went through the section of the block, if any
+     */
+    @Nullable
+    public IntArrayList invalidate(BlockPos pos) {
+        return pathIndex.remove(ChunkSectionPos.fromBlockPos(pos.asLong()));
+    }
+
+    /**
+     * Forgets about bullets that are gone, so sections nobody changes don't keep their ids around forever.
+     */
+    public void prune(IntPredicate alive) {
+        ObjectIterator<Long2ObjectMap.Entry<IntArrayList>> iterator = pathIndex.long2ObjectEntrySet().iterator();
+        while (iterator.hasNext()) {
+            IntArrayList ids = iterator.next().getValue();
+            ids.removeIf(alive.negate());
+            if (ids.isEmpty()) {
+                iterator.remove();
+            } else {
+                ids.trim();
+            }
+        }
+    }
+
+    public void clear() {
+        pathIndex.clear();
+    }
+
+    public void endTick() {
+        lastPredictions = predictions;
+        predictions = 0;
+    }
+
+    /**
+     * How many bullet arcs had to be walked during the last tick.
+     */
+    public int getLastPredictions() {
+        return lastPredictions;
+    }
+
+    private enum SegmentResult {
+        EMPTY,
+        OCCUPIED,
+        UNLOADED
+    }
+}
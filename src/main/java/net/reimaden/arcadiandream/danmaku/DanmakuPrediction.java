@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.random.Random;
+import net.reimaden.arcadiandream.networking.ModMessages;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hands out the seeds players fire their volleys with, so their clients can show a volley
+ * the moment it's fired instead of waiting for the server.
+ * <p>
+ * Every player gets a random base seed when they join. From then on, the seed of each volley
+ * only depends on that base and how many volleys the player has fired, so the client can work
+ * out the seed of its next volley on its own. The server tags each volley with its sequence number,
+ * which is what the client matches its predictions against.
+ */
+public class DanmakuPrediction {
+
+    public static final int NO_SEQUENCE = -1;
+
+    // Only ever touched on the server thread
+    private static final Map<UUID, Sequence> SEQUENCES = new HashMap<>();
+    private static final Random RANDOM = Random.create();
+
+    public static void register() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            if (!DanmakuField.isEnabled(handler.getPlayer().getWorld())) {
+                return;
+            }
+
+            Sequence sequence = new Sequence(RANDOM.nextLong());
+            SEQUENCES.put(handler.getPlayer().getUuid(), sequence);
+
+            PacketByteBuf data = PacketByteBufs.create();
+            data.writeLong(sequence.baseSeed);
+            data.writeVarInt(sequence.next);
+            ServerPlayNetworking.send(handler.getPlayer(), ModMessages.DANMAKU_SEED, data);
+        });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> SEQUENCES.remove(handler.getPlayer().getUuid()));
+    }
+
+    public static long getSeed(long baseSeed, int sequence) {
+        return HashCommon.mix(baseSeed + sequence);
+    }
+
+    /**
+     * @return the sequence of the player, or {@code null} if their client isn't predicting volleys
+     */
+    @Nullable
+    public static Sequence get(ServerPlayerEntity player) {
+        return SEQUENCES.get(player.getUuid());
+    }
+
+    public static class Sequence {
+
+        private final long baseSeed;
+        private int next;
+
+        private Sequence(long baseSeed) {
+            this.baseSeed = baseSeed;
+        }
+
+        /**
+         * Gives the volley the seed the player's client predicted it with.
+         */
+        public void apply(DanmakuVolley volley) {
+            volley.setSequence(next, getSeed(baseSeed, next));
+            next++;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Everything needed to rebuild one pattern of bullets.
+ * <p>
+ * The server sends a volley once instead of a spawn packet per bullet, and clients
+ * replay it through {@link #forEachBullet}. Divergence is drawn from a seeded random,
+ * so both sides end up with the same velocities for the same bullet ids.
+ */
+public class DanmakuVolley {
+
+    private final BulletArchetype archetype;
+    private final BulletPattern pattern;
+    private final int ownerId;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final float pitch;
+    private final float yaw;
+    private final int density;
+    private final Vec3d ownerVelocity;
+    private long seed;
+
+    private int firstBulletId;
+    private int sequence = DanmakuPrediction.NO_SEQUENCE;
+
+    public DanmakuVolley(BulletArchetype archetype, BulletPattern pattern, int ownerId, double x, double y, double z,
+                         float pitch, float yaw, int density, Vec3d ownerVelocity, long seed) {
+        this.archetype = archetype;
+        this.pattern = pattern;
+        this.ownerId = ownerId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.pitch = pitch;
+        this.yaw = yaw;
+        this.density = density;
+        this.ownerVelocity = ownerVelocity;
+        this.seed = seed;
+    }
+
+    /**
+     * Calls the consumer once for every bullet, with the same velocity
+     * {@code ProjectileEntity.setVelocity} would have given it.
+     */
+    public void forEachBullet(BulletConsumer consumer) {
+        Random random = Random.create(seed);
+        int[] index = {0};
+
+        pattern.forEachShot(pitch, yaw, density, archetype.getSpeed(), archetype.getDivergence(), (dx, dy, dz, s, d) -> {
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            double velocityX = (dx / length + random.nextTriangular(0.0, 0.0172275 * d)) * s + ownerVelocity.x;
+            double velocityY = (dy / length + random.nextTriangular(0.0, 0.0172275 * d)) * s + ownerVelocity.y;
+            double velocityZ = (dz / length + random.nextTriangular(0.0, 0.0172275 * d)) * s + ownerVelocity.z;
+
+            consumer.accept(firstBulletId + index[0]++, velocityX, velocityY, velocityZ);
+        });
+    }
+
+    public void write(PacketByteBuf buf) {
+        archetype.write(buf);
+        buf.writeVarInt(pattern.getRawId());
+        buf.writeVarInt(ownerId);
+        buf.writeVarInt(firstBulletId);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        buf.writeFloat(pitch);
+        buf.writeFloat(yaw);
+        buf.writeVarInt(density);
+        // Most patterns don't carry the owner's velocity, so it's only there when it isn't zero
+        boolean moving = !ownerVelocity.equals(Vec3d.ZERO);
+        buf.writeBoolean(moving);
+        if (moving) {
+            buf.writeDouble(ownerVelocity.x);
+            buf.writeDouble(ownerVelocity.y);
+            buf.writeDouble(ownerVelocity.z);
+        }
+        buf.writeLong(seed);
+        // Shifted by one, so volleys without a sequence still fit in a single byte
+        buf.writeVarInt(sequence + 1);
+    }
+
+    /**
+     * @return the volley, or {@code null} if the pattern isn't one the manager knows about
+     */
+    @Nullable
+    public static DanmakuVolley read(PacketByteBuf buf, BulletPatternManager patterns) {
+        BulletArchetype archetype = BulletArchetype.read(buf);
+        BulletPattern pattern = patterns.getByRawId(buf.readVarInt());
+        int ownerId = buf.readVarInt();
+        int firstBulletId = buf.readVarInt();
+
+        double x = buf.readDouble();
+        double y = buf.readDouble();
+        double z = buf.readDouble();
+        float pitch = buf.readFloat();
+        float yaw = buf.readFloat();
+        int density = buf.readVarInt();
+        Vec3d ownerVelocity = buf.readBoolean() ? new Vec3d(buf.readDouble(), buf.readDouble(), buf.readDouble()) : Vec3d.ZERO;
+        long seed = buf.readLong();
+        int sequence = buf.readVarInt() - 1;
+
+        if (pattern == null) {
+            return null;
+        }
+
+        DanmakuVolley volley = new DanmakuVolley(archetype, pattern, ownerId, x, y, z, pitch, yaw, density, ownerVelocity, seed);
+        volley.setFirstBulletId(firstBulletId);
+        volley.sequence = sequence;
+
+        return volley;
+    }
+
+    public BulletArchetype getArchetype() {
+        return archetype;
+    }
+
+    public BulletPattern getPattern() {
+        return pattern;
+    }
+
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public int getDensity() {
+        return density;
+    }
+
+    /**
+     * @return what gets added to the velocity of every bullet, see {@link BulletPattern#getInheritedVelocity}
+     */
+    public Vec3d getOwnerVelocity() {
+        return ownerVelocity;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of the owner's volley, or {@link DanmakuPrediction#NO_SEQUENCE} if it wasn't predicted
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence, long seed) {
+        this.sequence = sequence;
+        this.seed = seed;
+    }
+
+    public int getFirstBulletId() {
+        return firstBulletId;
+    }
+
+    public void setFirstBulletId(int firstBulletId) {
+        this.firstBulletId = firstBulletId;
+    }
+
+    @FunctionalInterface
+    public interface BulletConsumer {
+        void accept(int id, double velocityX, double velocityY, double velocityZ);
+    }
+}
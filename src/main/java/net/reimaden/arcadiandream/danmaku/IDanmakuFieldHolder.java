@@ -0,0 +1,10 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+public interface IDanmakuFieldHolder {
+    DanmakuField getDanmakuField();
+}
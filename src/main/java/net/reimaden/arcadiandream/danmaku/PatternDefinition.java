@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.JsonHelper;
+
+/**
+ * The parameters of a {@link BulletPattern}, as written in a datapack.
+ * <pre>{@code
+ * {
+ *   "shape": "layered_ring",
+ *   "layers": 3,
+ *   "twist": 15
+ * }
+ * }</pre>
+ * All angles are in degrees. Parameters a shape doesn't use are ignored.
+ *
+ * @param angle   the width of an arc, or the angle between the rays of a multi-ray
+ * @param offset  turns the whole pattern to the right
+ * @param rays    how many rays a multi-ray has
+ * @param turns   how many times a spiral goes around
+ * @param layers  how many rings a layered ring has
+ * @param twist   how much each ring of a layered ring is turned compared to the one before
+ * @param stagger how much of its speed the slowest bullet loses, from 0 to 1
+ */
+public record PatternDefinition(PatternShape shape, float angle, float offset, int rays, float turns, int layers, float twist, float stagger) {
+
+    public static PatternDefinition of(PatternShape shape) {
+        return new PatternDefinition(shape, 45.0f, 0.0f, 2, 1.0f, 2, 0.0f, shape.getDefaultStagger());
+    }
+
+    public PatternDefinition withAngle(float angle) {
+        return new PatternDefinition(shape, angle, offset, rays, turns, layers, twist, stagger);
+    }
+
+    public PatternDefinition withRays(int rays) {
+        return new PatternDefinition(shape, angle, offset, rays, turns, layers, twist, stagger);
+    }
+
+    public static PatternDefinition fromJson(JsonObject json) {
+        String shapeName = JsonHelper.getString(json, "shape");
+        PatternShape shape = PatternShape.byName(shapeName);
+        if (shape == null) {
+            throw new JsonParseException("Unknown danmaku pattern shape: " + shapeName);
+        }
+
+        PatternDefinition defaults = of(shape);
+        PatternDefinition definition = new PatternDefinition(shape,
+                JsonHelper.getFloat(json, "angle", defaults.angle()),
+                JsonHelper.getFloat(json, "offset", defaults.offset()),
+                JsonHelper.getInt(json, "rays", defaults.rays()),
+                JsonHelper.getFloat(json, "turns", defaults.turns()),
+                JsonHelper.getInt(json, "layers", defaults.layers()),
+                JsonHelper.getFloat(json, "twist", defaults.twist()),
+                JsonHelper.getFloat(json, "stagger", defaults.stagger()));
+
+        if (definition.rays() < 1 || definition.layers() < 1) {
+            throw new JsonParseException("A danmaku pattern needs at least one ray and one layer");
+        }
+        if (definition.stagger() < 0 || definition.stagger() > 1) {
+            throw new JsonParseException("The stagger of a danmaku pattern has to be between 0 and 1");
+        }
+
+        return definition;
+    }
+
+    public void write(PacketByteBuf buf) {
+        buf.writeByte(shape.ordinal());
+        buf.writeFloat(angle);
+        buf.writeFloat(offset);
+        buf.writeVarInt(rays);
+        buf.writeFloat(turns);
+        buf.writeVarInt(layers);
+        buf.writeFloat(twist);
+        buf.writeFloat(stagger);
+    }
+
+    public static PatternDefinition read(PacketByteBuf buf) {
+        return new PatternDefinition(PatternShape.byId(buf.readByte()), buf.readFloat(), buf.readFloat(), buf.readVarInt(),
+                buf.readFloat(), buf.readVarInt(), buf.readFloat(), buf.readFloat());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+
+/**
+ * The directions of one {@link BulletPattern} at one density, worked out ahead of time.
+ * <p>
+ * Every bullet of a pattern starts out as a direction on the horizontal plane, which only depends
+ * on the pattern and its density. Kernels keep those in a table, so firing a volley only takes
+ * one pitch and yaw rotation per bullet, without any trigonometry or {@code Vec3d}s.
+ * <p>
+ * Kernels are immutable, and cached by the pattern they belong to.
+ */
+public final class PatternKernel {
+
+    // Interleaved x and z of every direction, y is always 0 until the pitch is applied
+    private final float[] directions;
+    // How much of its speed each bullet loses, for the patterns that stagger their bullets
+    private final float[] slowdowns;
+    private final float divergenceBonus;
+
+    private PatternKernel(float[] directions, float[] slowdowns, float divergenceBonus) {
+        this.directions = directions;
+        this.slowdowns = slowdowns;
+        this.divergenceBonus = divergenceBonus;
+    }
+
+    public int size() {
+        return slowdowns.length;
+    }
+
+    /**
+     * Rotates every direction of the kernel by the pitch and yaw, and calls the consumer with it.
+     * The result is the same as {@code Vec3d.fromPolar} for straight shots, and the same as
+     * rotating around Y, then X, then Y again for the patterns that fan out.
+     */
+    public void forEachShot(float pitch, float yaw, float speed, float divergence, BulletPattern.ShotConsumer consumer) {
+        float pitchCos = MathHelper.cos(pitch * MathHelper.RADIANS_PER_DEGREE);
+        float pitchSin = MathHelper.sin(pitch * MathHelper.RADIANS_PER_DEGREE);
+        float yawCos = MathHelper.cos((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
+        float yawSin = MathHelper.sin((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
+
+        float d = divergence + divergenceBonus;
+
+        for (int i = 0; i < slowdowns.length; i++) {
+            float localX = directions[i * 2];
+            float localZ = directions[i * 2 + 1];
+
+            double x = localX * yawCos + localZ * pitchCos * yawSin;
+            double y = localZ * pitchSin;
+            double z = localZ * pitchCos * yawCos - localX * yawSin;
+
+            consumer.accept(x, y, z, speed - slowdowns[i] * speed, d);
+        }
+    }
+
+    static PatternKernel build(PatternDefinition definition, int density) {
+        Builder builder = new Builder(definition.offset());
+        float stagger = definition.stagger();
+
+        switch (definition.shape()) {
+            case SPREAD -> {
+                for (int i = 0; i < density; i++) {
+                    builder.add(0, 0);
+                }
+                builder.divergenceBonus = density - 1;
+            }
+            case RAY -> {
+                for (int i = 0; i < density; i++) {
+                    builder.add(0, stagger * i / density);
+                }
+            }
+            case RING -> {
+                for (int i = 0; i < density; i++) {
+                    builder.add(i * (360f / density), 0);
+                }
+            }
+            case ARC -> {
+                float arc = definition.angle();
+                for (int i = 0; i < density; i++) {
+                    // A single bullet goes straight ahead instead of dividing by zero
+                    float angle = density > 1 ? i * (arc / (density - 1)) : arc / 2;
+                    builder.add(angle - arc / 2, 0);
+                }
+            }
+            case MULTI_RAY -> {
+                int count = definition.rays();
+                float spacing = definition.angle();
+                int rays = Math.min(density, count);
+                int perRay = density <= count ? MathHelper.ceil(density / (float) count) : density / count;
+                for (int j = 0; j < rays; j++) {
+                    for (int i = 0; i < perRay; i++) {
+                        builder.add(spacing * j - spacing * (count - 1) / 2, stagger * i / density);
+                    }
+                }
+            }
+            case SPIRAL -> {
+                float sweep = 360f * definition.turns();
+                for (int i = 0; i < density; i++) {
+                    builder.add(i * (sweep / density), stagger * i / density);
+                }
+            }
+            case LAYERED_RING -> {
+                int layers = Math.min(density, definition.layers());
+                int perLayer = layers > 0 ? density / layers : 0;
+                for (int k = 0; k < layers; k++) {
+                    for (int i = 0; i < perLayer; i++) {
+                        builder.add(i * (360f / perLayer) + k * definition.twist(), stagger * k / layers);
+                    }
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static class Builder {
+
+        private final float offset;
+        private float[] directions = new float[8];
+        private float[] slowdowns = new float[4];
+        private int size;
+        private float divergenceBonus;
+
+        private Builder(float offset) {
+            this.offset = offset;
+        }
+
+        // The angle is around Y, starting from straight ahead
+        private void add(float angle, float slowdown) {
+            if (size == slowdowns.length) {
+                directions = Arrays.copyOf(directions, size * 4);
+                slowdowns = Arrays.copyOf(slowdowns, size * 2);
+            }
+
+            float radians = (angle + offset + 180) * MathHelper.RADIANS_PER_DEGREE;
+            directions[size * 2] = MathHelper.sin(radians);
+            directions[size * 2 + 1] = MathHelper.cos(radians);
+            slowdowns[size] = slowdown;
+            size++;
+        }
+
+        private PatternKernel build() {
+            return new PatternKernel(Arrays.copyOf(directions, size * 2), Arrays.copyOf(slowdowns, size), divergenceBonus);
+        }
+    }
+}
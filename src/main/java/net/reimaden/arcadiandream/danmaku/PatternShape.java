@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * The shapes a {@link BulletPattern} can be built from. Each one reads its own parameters
+ * from the {@link PatternDefinition}, and ignores the rest.
+ */
+public enum PatternShape {
+
+    // Every bullet goes straight ahead, spread out by extra divergence
+    SPREAD(0.0f, true),
+    // A line of bullets straight ahead, each one slower than the last
+    RAY(1.0f, true),
+    // Bullets evenly spaced around a full circle, turned by "offset"
+    RING(0.0f, false),
+    // Bullets evenly spaced over "angle" degrees, centered ahead
+    ARC(0.0f, false),
+    // "rays" staggered lines, "angle" degrees apart
+    MULTI_RAY(1.0f, false),
+    // Bullets going around "turns" times, each one slower than the last
+    SPIRAL(1.0f, false),
+    // "layers" rings, each one turned by "twist" degrees and slower than the last
+    LAYERED_RING(0.5f, false);
+
+    private static final PatternShape[] BY_ID = values();
+
+    private final float defaultStagger;
+    private final boolean inheritsVelocity;
+
+    PatternShape(float defaultStagger, boolean inheritsVelocity) {
+        this.defaultStagger = defaultStagger;
+        this.inheritsVelocity = inheritsVelocity;
+    }
+
+    public static PatternShape byId(int id) {
+        return BY_ID[id % BY_ID.length];
+    }
+
+    @Nullable
+    public static PatternShape byName(String name) {
+        for (PatternShape shape : BY_ID) {
+            if (shape.getName().equals(name.toLowerCase(Locale.ROOT))) {
+                return shape;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * How much of its speed the slowest bullet loses, unless the definition says otherwise.
+     */
+    public float getDefaultStagger() {
+        return defaultStagger;
+    }
+
+    /**
+     * Straight shots carry the shooter's momentum like arrows do, the ones that fan out never did.
+     */
+    public boolean inheritsVelocity() {
+        return inheritsVelocity;
+    }
+}
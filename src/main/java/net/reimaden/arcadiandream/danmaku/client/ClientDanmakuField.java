@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku.client;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.item.ItemStack;
+import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import net.reimaden.arcadiandream.danmaku.DanmakuVolley;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The client's copy of the server's {@link net.reimaden.arcadiandream.danmaku.DanmakuField}.
+ * <p>
+ * Bullets are rebuilt from the volleys the server sends, and moved with the same physics.
+ * Clients don't check for hits on their own: bullets disappear once they time out,
+ * or once the server says they hit something.
+ */
+public class ClientDanmakuField {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    @Nullable
+    private static ClientDanmakuField instance;
+
+    private final ClientWorld world;
+
+    private int size;
+
+    private int[] id = new int[INITIAL_CAPACITY];
+    private BulletArchetype[] archetype = new BulletArchetype[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] z = new double[INITIAL_CAPACITY];
+    private double[] prevX = new double[INITIAL_CAPACITY];
+    private double[] prevY = new double[INITIAL_CAPACITY];
+    private double[] prevZ = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+    private double[] velocityZ = new double[INITIAL_CAPACITY];
+    private int[] age = new int[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+
+    ClientDanmakuField(ClientWorld world) {
+        this.world = world;
+    }
+
+    public static void register() {
+        ClientTickEvents.END_WORLD_TICK.register(world -> {
+            get(world).tick();
+            DanmakuPredictor.tick(world);
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+            instance = null;
+            BulletPatternManager.resetClient();
+            DanmakuPredictor.reset();
+        });
+        WorldRenderEvents.AFTER_ENTITIES.register(context -> {
+            if (instance != null && instance.world == context.world()) {
+                render(instance, context);
+            }
+
+            ClientDanmakuField predicted = DanmakuPredictor.getField(context.world());
+            if (predicted != null) {
+                render(predicted, context);
+            }
+        });
+    }
+
+    private static void render(ClientDanmakuField field, WorldRenderContext context) {
+        if (ArcadianDream.CONFIG.danmakuFieldOptions.batchedRendering()) {
+            DanmakuBatchRenderer.render(field, context);
+        } else {
+            DanmakuFieldRenderer.render(field, context);
+        }
+    }
+
+    public static ClientDanmakuField get(ClientWorld world) {
+        // Bullets don't follow the player into other dimensions
+        if (instance == null || instance.world != world) {
+            instance = new ClientDanmakuField(world);
+        }
+
+        return instance;
+    }
+
+    public void fire(DanmakuVolley volley) {
+        volley.forEachBullet((bulletId, velocityX, velocityY, velocityZ) -> {
+            ensureCapacity(size + 1);
+
+            int i = size++;
+            this.id[i] = bulletId;
+            this.archetype[i] = volley.getArchetype();
+            this.x[i] = this.prevX[i] = volley.getX();
+            this.y[i] = this.prevY[i] = volley.getY();
+            this.z[i] = this.prevZ[i] = volley.getZ();
+            this.velocityX[i] = velocityX;
+            this.velocityY[i] = velocityY;
+            this.velocityZ[i] = velocityZ;
+            this.age[i] = 0;
+            this.removed[i] = false;
+        });
+    }
+
+    public void remove(IntList ids) {
+        for (int j = 0; j < ids.size(); j++) {
+            // Bullets are kept in the order they were fired, and so are their ids
+            int i = Arrays.binarySearch(id, 0, size, ids.getInt(j));
+            if (i >= 0) {
+                removed[i] = true;
+            }
+        }
+
+        compact();
+    }
+
+    /**
+     * Moves the bullets of another field over to this one, giving them new ids.
+     * The new ids have to come after every id already in this field.
+     */
+    void adopt(ClientDanmakuField from, int fromFirstId, int count, int firstId) {
+        for (int j = 0; j < from.size; j++) {
+            int offset = from.id[j] - fromFirstId;
+            if (from.removed[j] || offset < 0 || offset >= count) {
+                continue;
+            }
+
+            ensureCapacity(size + 1);
+            int i = size++;
+            this.id[i] = firstId + offset;
+            this.archetype[i] = from.archetype[j];
+            this.x[i] = from.x[j];
+            this.y[i] = from.y[j];
+            this.z[i] = from.z[j];
+            this.prevX[i] = from.prevX[j];
+            this.prevY[i] = from.prevY[j];
+            this.prevZ[i] = from.prevZ[j];
+            this.velocityX[i] = from.velocityX[j];
+            this.velocityY[i] = from.velocityY[j];
+            this.velocityZ[i] = from.velocityZ[j];
+            this.age[i] = from.age[j];
+            this.removed[i] = false;
+
+            from.removed[j] = true;
+        }
+
+        from.compact();
+    }
+
+    void removeRange(int firstId, int count) {
+        for (int i = 0; i < size; i++) {
+            if (id[i] >= firstId && id[i] - firstId < count) {
+                removed[i] = true;
+            }
+        }
+
+        compact();
+    }
+
+    void tick() {
+        for (int i = 0; i < size; i++) {
+            age[i]++;
+
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            prevZ[i] = z[i];
+
+            x[i] += velocityX[i];
+            y[i] += velocityY[i];
+            z[i] += velocityZ[i];
+            velocityY[i] -= archetype[i].getGravity();
+
+            if (age[i] >= archetype[i].getDuration()) {
+                removed[i] = true;
+            }
+        }
+
+        compact();
+    }
+
+    public ClientWorld getWorld() {
+        return world;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BulletType getType(int i) {
+        return archetype[i].getType();
+    }
+
+    public double getX(int i, float tickDelta) {
+        return prevX[i] + (x[i] - prevX[i]) * tickDelta;
+    }
+
+    public double getY(int i, float tickDelta) {
+        return prevY[i] + (y[i] - prevY[i]) * tickDelta;
+    }
+
+    public double getZ(int i, float tickDelta) {
+        return prevZ[i] + (z[i] - prevZ[i]) * tickDelta;
+    }
+
+    public double getVelocityX(int i) {
+        return velocityX[i];
+    }
+
+    public double getVelocityY(int i) {
+        return velocityY[i];
+    }
+
+    public double getVelocityZ(int i) {
+        return velocityZ[i];
+    }
+
+    public int getAge(int i) {
+        return age[i];
+    }
+
+    public int getId(int i) {
+        return id[i];
+    }
+
+    public int getColor(int i) {
+        return archetype[i].getColor();
+    }
+
+    public ItemStack getStack(int i) {
+        return archetype[i].getRenderStack();
+    }
+
+    private void compact() {
+        int alive = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            if (alive != i) {
+                move(i, alive);
+            }
+            alive++;
+        }
+
+        Arrays.fill(removed, alive, size, false);
+        Arrays.fill(archetype, alive, size, null);
+        size = alive;
+    }
+
+    private void move(int from, int to) {
+        id[to] = id[from];
+        archetype[to] = archetype[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        z[to] = z[from];
+        prevX[to] = prevX[from];
+        prevY[to] = prevY[from];
+        prevZ[to] = prevZ[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        velocityZ[to] = velocityZ[from];
+        age[to] = age[from];
+        removed[to] = false;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= id.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, id.length * 2);
+        id = Arrays.copyOf(id, newCapacity);
+        archetype = Arrays.copyOf(archetype, newCapacity);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        prevX = Arrays.copyOf(prevX, newCapacity);
+        prevY = Arrays.copyOf(prevY, newCapacity);
+        prevZ = Arrays.copyOf(prevZ, newCapacity);
+        velocityX = Arrays.copyOf(velocityX, newCapacity);
+        velocityY = Arrays.copyOf(velocityY, newCapacity);
+        velocityZ = Arrays.copyOf(velocityZ, newCapacity);
+        age = Arrays.copyOf(age, newCapacity);
+        removed = Arrays.copyOf(removed, newCapacity);
+    }
+}
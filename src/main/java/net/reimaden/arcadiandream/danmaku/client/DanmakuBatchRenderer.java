@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku.client;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.LightmapTextureManager;
+import net.minecraft.client.render.OverlayTexture;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.json.ModelTransformation;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.LightType;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws the bullets of the {@link ClientDanmakuField} in one batch per bullet type.
+ * <p>
+ * The quads of each bullet model are baked into flat arrays once, instead of going through
+ * the item renderer for every bullet. Bullets that always face the camera share a single
+ * orientation per frame, so all that's left per bullet is its offset, color and light.
+ * Every bullet ends up in the same item render layer, which gets drawn in one go.
+ * <p>
+ * Bullets outside the frustum are skipped with the same box their entities were culled with.
+ */
+public class DanmakuBatchRenderer {
+
+    private static final Map<BulletType, Mesh> MESHES = new EnumMap<>(BulletType.class);
+    // The visible bullets of every type, sorted out in one pass over the field
+    private static final IntArrayList[] VISIBLE = new IntArrayList[BulletType.values().length];
+
+    static {
+        for (int i = 0; i < VISIBLE.length; i++) {
+            VISIBLE[i] = new IntArrayList();
+        }
+    }
+
+    // Reused every frame, rendering only ever happens on the render thread
+    private static final Matrix4f TYPE_MATRIX = new Matrix4f();
+    private static final Matrix3f TYPE_NORMAL_MATRIX = new Matrix3f();
+    private static final Matrix4f BULLET_MATRIX = new Matrix4f();
+    private static final Matrix3f NORMAL_MATRIX = new Matrix3f();
+    private static final Vector3f POSITION = new Vector3f();
+    private static final Vector3f NORMAL = new Vector3f();
+    private static final BlockPos.Mutable LIGHT_POS = new BlockPos.Mutable();
+
+    public static void render(ClientDanmakuField field, WorldRenderContext context) {
+        if (field.size() == 0 || context.consumers() == null) {
+            return;
+        }
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        MatrixStack.Entry base = context.matrixStack().peek();
+        Vec3d camera = context.camera().getPos();
+        Quaternionf cameraRotation = client.getEntityRenderDispatcher().getRotation();
+        float tickDelta = context.tickDelta();
+        Frustum frustum = context.frustum();
+
+        for (IntArrayList visible : VISIBLE) {
+            visible.clear();
+        }
+        for (int i = 0; i < field.size(); i++) {
+            BulletType type = field.getType(i);
+            if (frustum == null || frustum.isVisible(getRenderBox(type, field.getX(i, tickDelta), field.getY(i, tickDelta), field.getZ(i, tickDelta)))) {
+                VISIBLE[type.ordinal()].add(i);
+            }
+        }
+
+        for (BulletType type : BulletType.values()) {
+            IntArrayList visible = VISIBLE[type.ordinal()];
+            if (visible.isEmpty()) {
+                continue;
+            }
+
+            Mesh mesh = getMesh(client, type);
+            VertexConsumer consumer = context.consumers().getBuffer(mesh.layer);
+
+            // Same transformations as the bullet entity renderers, minus the translation
+            TYPE_MATRIX.identity();
+            TYPE_NORMAL_MATRIX.identity();
+            if (type == BulletType.BUBBLE) {
+                // Like MatrixStack, uniform scaling leaves the normals alone
+                TYPE_MATRIX.scale(4.0f).translate(0.0f, -0.0315f, 0.0f);
+            }
+            if (type != BulletType.AMULET) {
+                TYPE_MATRIX.rotate(cameraRotation).rotateY(MathHelper.PI);
+                TYPE_NORMAL_MATRIX.rotate(cameraRotation).rotateY(MathHelper.PI);
+            }
+
+            for (int v = 0; v < visible.size(); v++) {
+                int i = visible.getInt(v);
+                double x = field.getX(i, tickDelta);
+                double y = field.getY(i, tickDelta);
+                double z = field.getZ(i, tickDelta);
+
+                // Same as FlyingItemEntityRenderer, so new bullets don't pop up in the shooter's face
+                if (field.getAge(i) < 2 && camera.squaredDistanceTo(x, y, z) < 12.25) {
+                    continue;
+                }
+
+                BULLET_MATRIX.set(base.getPositionMatrix())
+                        .translate((float) (x - camera.getX()), (float) (y - camera.getY()), (float) (z - camera.getZ()));
+                NORMAL_MATRIX.set(base.getNormalMatrix());
+
+                if (type == BulletType.AMULET) {
+                    // Amulets are flat, so they face the way they're flying
+                    double horizontal = Math.sqrt(field.getVelocityX(i) * field.getVelocityX(i) + field.getVelocityZ(i) * field.getVelocityZ(i));
+                    float yaw = (float) MathHelper.atan2(field.getVelocityX(i), field.getVelocityZ(i));
+                    float pitch = (float) MathHelper.atan2(field.getVelocityY(i), horizontal);
+
+                    BULLET_MATRIX.rotateY(yaw - MathHelper.HALF_PI).rotateZ(pitch)
+                            .rotateX(-MathHelper.HALF_PI).rotateZ(MathHelper.HALF_PI);
+                    NORMAL_MATRIX.rotateY(yaw - MathHelper.HALF_PI).rotateZ(pitch)
+                            .rotateX(-MathHelper.HALF_PI).rotateZ(MathHelper.HALF_PI);
+                } else {
+                    BULLET_MATRIX.mul(TYPE_MATRIX);
+                    NORMAL_MATRIX.mul(TYPE_NORMAL_MATRIX);
+                }
+
+                // Bullets are always lit up, just like their entities
+                LIGHT_POS.set(x, y, z);
+                int light = LightmapTextureManager.pack(15, context.world().getLightLevel(LightType.SKY, LIGHT_POS));
+
+                int color = field.getColor(i);
+                mesh.emit(consumer, light,
+                        (color >> 16 & 0xFF) / 255.0f, (color >> 8 & 0xFF) / 255.0f, (color & 0xFF) / 255.0f);
+            }
+        }
+    }
+
+    // Same as the bounding box of the bullet's entity, grown like EntityRenderer.shouldRender does
+    private static Box getRenderBox(BulletType type, double x, double y, double z) {
+        double halfWidth = type.getWidth() / 2.0;
+        return new Box(x - halfWidth, y, z - halfWidth, x + halfWidth, y + type.getHeight(), z + halfWidth).expand(0.5);
+    }
+
+    private static Mesh getMesh(MinecraftClient client, BulletType type) {
+        ItemStack stack = type.getRenderStack(-1);
+        BakedModel model = client.getItemRenderer().getModel(stack, null, null, 0);
+
+        // Models get replaced whenever resources are reloaded
+        Mesh mesh = MESHES.get(type);
+        if (mesh == null || mesh.model != model) {
+            mesh = new Mesh(model, RenderLayers.getItemLayer(stack, true));
+            MESHES.put(type, mesh);
+        }
+
+        return mesh;
+    }
+
+    /**
+     * The quads of a bullet model, with its ground transformation already applied.
+     */
+    private static class Mesh {
+
+        private final BakedModel model;
+        private final RenderLayer layer;
+
+        private final float[] positions;
+        private final float[] textures;
+        private final float[] normals;
+        private final boolean[] tinted;
+
+        private Mesh(BakedModel model, RenderLayer layer) {
+            this.model = model;
+            this.layer = layer;
+
+            // Same as ItemRenderer.renderBakedItemModel, culled faces included
+            List<BakedQuad> quads = new ArrayList<>();
+            Random random = Random.create();
+            for (Direction direction : Direction.values()) {
+                random.setSeed(42L);
+                quads.addAll(model.getQuads(null, direction, random));
+            }
+            random.setSeed(42L);
+            quads.addAll(model.getQuads(null, null, random));
+
+            MatrixStack matrices = new MatrixStack();
+            model.getTransformation().getTransformation(ModelTransformation.Mode.GROUND).apply(false, matrices);
+            matrices.translate(-0.5f, -0.5f, -0.5f);
+            Matrix4f positionMatrix = matrices.peek().getPositionMatrix();
+            Matrix3f normalMatrix = matrices.peek().getNormalMatrix();
+
+            this.positions = new float[quads.size() * 12];
+            this.textures = new float[quads.size() * 8];
+            this.normals = new float[quads.size() * 3];
+            this.tinted = new boolean[quads.size()];
+
+            Vector3f vector = new Vector3f();
+            for (int q = 0; q < quads.size(); q++) {
+                BakedQuad quad = quads.get(q);
+                int[] data = quad.getVertexData();
+                // Each vertex is 8 ints: position, color, texture, light and normal
+                int stride = data.length / 4;
+
+                for (int v = 0; v < 4; v++) {
+                    int offset = v * stride;
+                    positionMatrix.transformPosition(Float.intBitsToFloat(data[offset]), Float.intBitsToFloat(data[offset + 1]),
+                            Float.intBitsToFloat(data[offset + 2]), vector);
+                    positions[q * 12 + v * 3] = vector.x();
+                    positions[q * 12 + v * 3 + 1] = vector.y();
+                    positions[q * 12 + v * 3 + 2] = vector.z();
+                    textures[q * 8 + v * 2] = Float.intBitsToFloat(data[offset + 4]);
+                    textures[q * 8 + v * 2 + 1] = Float.intBitsToFloat(data[offset + 5]);
+                }
+
+                Vec3i face = quad.getFace().getVector();
+                normalMatrix.transform(vector.set(face.getX(), face.getY(), face.getZ()));
+                normals[q * 3] = vector.x();
+                normals[q * 3 + 1] = vector.y();
+                normals[q * 3 + 2] = vector.z();
+
+                // The overlay layer is the one ModColorProviders dyes
+                tinted[q] = quad.hasColor() && quad.getColorIndex() != 0;
+            }
+        }
+
+        private void emit(VertexConsumer consumer, int light, float red, float green, float blue) {
+            for (int q = 0; q < tinted.length; q++) {
+                float r = tinted[q] ? red : 1.0f;
+                float g = tinted[q] ? green : 1.0f;
+                float b = tinted[q] ? blue : 1.0f;
+
+                NORMAL_MATRIX.transform(NORMAL.set(normals[q * 3], normals[q * 3 + 1], normals[q * 3 + 2]));
+
+                for (int v = 0; v < 4; v++) {
+                    int offset = q * 12 + v * 3;
+                    BULLET_MATRIX.transformPosition(positions[offset], positions[offset + 1], positions[offset + 2], POSITION);
+                    consumer.vertex(POSITION.x(), POSITION.y(), POSITION.z(), r, g, b, 1.0f,
+                            textures[q * 8 + v * 2], textures[q * 8 + v * 2 + 1],
+                            OverlayTexture.DEFAULT_UV, light, NORMAL.x(), NORMAL.y(), NORMAL.z());
+                }
+            }
+        }
+    }
+}
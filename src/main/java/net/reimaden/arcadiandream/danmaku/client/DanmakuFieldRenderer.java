@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku.client;
+
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.LightmapTextureManager;
+import net.minecraft.client.render.OverlayTexture;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.client.render.item.ItemRenderer;
+import net.minecraft.client.render.model.json.ModelTransformation;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.RotationAxis;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.LightType;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+
+/**
+ * Draws the bullets of the {@link ClientDanmakuField} exactly like the bullet entity renderers would.
+ * <p>
+ * Slower than the {@link DanmakuBatchRenderer}, but kept around for when batching gets in the way.
+ */
+public class DanmakuFieldRenderer {
+
+    public static void render(ClientDanmakuField field, WorldRenderContext context) {
+        if (field.size() == 0 || context.consumers() == null) {
+            return;
+        }
+
+        MinecraftClient client = MinecraftClient.getInstance();
+        ItemRenderer itemRenderer = client.getItemRenderer();
+        MatrixStack matrices = context.matrixStack();
+        VertexConsumerProvider vertexConsumers = context.consumers();
+        Vec3d camera = context.camera().getPos();
+        float tickDelta = context.tickDelta();
+
+        for (int i = 0; i < field.size(); i++) {
+            double x = field.getX(i, tickDelta);
+            double y = field.getY(i, tickDelta);
+            double z = field.getZ(i, tickDelta);
+
+            // Same as FlyingItemEntityRenderer, so new bullets don't pop up in the shooter's face
+            if (field.getAge(i) < 2 && camera.squaredDistanceTo(x, y, z) < 12.25) {
+                continue;
+            }
+
+            // Bullets are always lit up, just like their entities
+            int light = LightmapTextureManager.pack(15, context.world().getLightLevel(LightType.SKY, new BlockPos(x, y, z)));
+
+            matrices.push();
+            matrices.translate(x - camera.getX(), y - camera.getY(), z - camera.getZ());
+
+            BulletType type = field.getType(i);
+            if (type == BulletType.AMULET) {
+                // Amulets are flat, so they face the way they're flying
+                double horizontal = Math.sqrt(field.getVelocityX(i) * field.getVelocityX(i) + field.getVelocityZ(i) * field.getVelocityZ(i));
+                float yaw = (float) (MathHelper.atan2(field.getVelocityX(i), field.getVelocityZ(i)) * MathHelper.DEGREES_PER_RADIAN);
+                float pitch = (float) (MathHelper.atan2(field.getVelocityY(i), horizontal) * MathHelper.DEGREES_PER_RADIAN);
+
+                matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(yaw - 90.0f));
+                matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(pitch));
+                matrices.multiply(RotationAxis.POSITIVE_X.rotationDegrees(-90.0f));
+                matrices.multiply(RotationAxis.POSITIVE_Z.rotationDegrees(90.0f));
+            } else {
+                if (type == BulletType.BUBBLE) {
+                    matrices.scale(4.0f, 4.0f, 4.0f);
+                    matrices.translate(0.0f, -0.0315f, 0.0f);
+                }
+                matrices.multiply(client.getEntityRenderDispatcher().getRotation());
+                matrices.multiply(RotationAxis.POSITIVE_Y.rotationDegrees(180.0f));
+            }
+
+            itemRenderer.renderItem(field.getStack(i), ModelTransformation.Mode.GROUND, light,
+                    OverlayTexture.DEFAULT_UV, matrices, vertexConsumers, field.getId(i));
+            matrices.pop();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.danmaku.client;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.MathHelper;
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.danmaku.DanmakuPrediction;
+import net.reimaden.arcadiandream.danmaku.DanmakuVolley;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Shows the volleys the player fires right away, instead of waiting for the server to send them back.
+ * <p>
+ * Predicted bullets live in a field of their own until the server's copy of the volley arrives.
+ * If both were fired the same way, the predicted bullets take on the server's ids and move over to the
+ * {@link ClientDanmakuField}, so nothing is drawn twice and nothing jumps back. Otherwise they're dropped,
+ * and the server's volley is fired like any other.
+ *
+ * @see DanmakuPrediction
+ */
+public class DanmakuPredictor {
+
+    // Predictions the server hasn't confirmed by then were never fired on its side
+    private static final int MAX_PENDING_TICKS = 60;
+    // The server fires with the player's position and rotation from when its packet arrived
+    private static final double MAX_POSITION_ERROR = 0.5;
+    private static final float MAX_ROTATION_ERROR = 2.0f;
+    private static final double MAX_VELOCITY_ERROR = 0.1;
+
+    @Nullable
+    private static DanmakuPredictor instance;
+
+    private final long baseSeed;
+    private final Deque<PendingVolley> pending = new ArrayDeque<>();
+    @Nullable
+    private ClientDanmakuField field;
+    private int nextSequence;
+    private int nextId;
+
+    private DanmakuPredictor(long baseSeed, int nextSequence) {
+        this.baseSeed = baseSeed;
+        this.nextSequence = nextSequence;
+    }
+
+    public static void start(long baseSeed, int nextSequence) {
+        instance = new DanmakuPredictor(baseSeed, nextSequence);
+    }
+
+    public static void reset() {
+        instance = null;
+    }
+
+    public static boolean isActive() {
+        return instance != null;
+    }
+
+    /**
+     * Fires the volley the server is about to fire for the player.
+     */
+    public static void predict(PlayerEntity user, BulletArchetype archetype, BulletPattern pattern, float pitch, float yaw, int density) {
+        if (instance == null || !(user.getWorld() instanceof ClientWorld world)) {
+            return;
+        }
+
+        int sequence = instance.nextSequence++;
+        DanmakuVolley volley = new DanmakuVolley(archetype, pattern, user.getId(), user.getX(), user.getEyeY() - 0.1, user.getZ(),
+                pitch, yaw, density, pattern.getInheritedVelocity(user), DanmakuPrediction.getSeed(instance.baseSeed, sequence));
+        volley.setFirstBulletId(instance.nextId);
+
+        ClientDanmakuField field = instance.getOrCreateField(world);
+        int before = field.size();
+        field.fire(volley);
+        int count = field.size() - before;
+
+        instance.nextId += count;
+        instance.pending.addLast(new PendingVolley(sequence, volley, count));
+    }
+
+    /**
+     * Matches a volley from the server against the predicted ones.
+     *
+     * @return {@code true} if the predicted bullets were kept, and the volley shouldn't be fired again
+     */
+    public static boolean reconcile(ClientWorld world, DanmakuVolley volley, ClientDanmakuField target) {
+        PlayerEntity player = MinecraftClient.getInstance().player;
+        if (instance == null || volley.getSequence() == DanmakuPrediction.NO_SEQUENCE
+                || player == null || volley.getOwnerId() != player.getId()) {
+            return false;
+        }
+
+        instance.nextSequence = Math.max(instance.nextSequence, volley.getSequence() + 1);
+        ClientDanmakuField field = instance.getOrCreateField(world);
+
+        Iterator<PendingVolley> iterator = instance.pending.iterator();
+        while (iterator.hasNext()) {
+            PendingVolley prediction = iterator.next();
+            if (prediction.sequence > volley.getSequence()) {
+                break;
+            }
+            iterator.remove();
+
+            // Volleys come in the order they were fired, so anything older was never fired
+            if (prediction.sequence == volley.getSequence() && prediction.matches(volley)) {
+                target.adopt(field, prediction.volley.getFirstBulletId(), prediction.count, volley.getFirstBulletId());
+                return true;
+            }
+            field.removeRange(prediction.volley.getFirstBulletId(), prediction.count);
+        }
+
+        return false;
+    }
+
+    static void tick(ClientWorld world) {
+        if (instance == null || instance.field == null || instance.field.getWorld() != world) {
+            return;
+        }
+
+        instance.field.tick();
+
+        Iterator<PendingVolley> iterator = instance.pending.iterator();
+        while (iterator.hasNext()) {
+            PendingVolley prediction = iterator.next();
+            if (++prediction.age < MAX_PENDING_TICKS) {
+                continue;
+            }
+            iterator.remove();
+
+            instance.field.removeRange(prediction.volley.getFirstBulletId(), prediction.count);
+            // The server skipped this volley, so it'll use the same sequence for the next one
+            instance.nextSequence = Math.min(instance.nextSequence, prediction.sequence);
+        }
+    }
+
+    @Nullable
+    static ClientDanmakuField getField(ClientWorld world) {
+        if (instance == null || instance.field == null || instance.field.getWorld() != world) {
+            return null;
+        }
+        return instance.field;
+    }
+
+    private ClientDanmakuField getOrCreateField(ClientWorld world) {
+        // Predictions don't follow the player into other dimensions either
+        if (field == null || field.getWorld() != world) {
+            field = new ClientDanmakuField(world);
+            pending.clear();
+        }
+        return field;
+    }
+
+    private static class PendingVolley {
+
+        private final int sequence;
+        private final DanmakuVolley volley;
+        private final int count;
+        private int age;
+
+        private PendingVolley(int sequence, DanmakuVolley volley, int count) {
+            this.sequence = sequence;
+            this.volley = volley;
+            this.count = count;
+        }
+
+        private boolean matches(DanmakuVolley other) {
+            double dx = volley.getX() - other.getX();
+            double dy = volley.getY() - other.getY();
+            double dz = volley.getZ() - other.getZ();
+
+            // Archetypes are interned, and both sides have the same patterns
+            return volley.getArchetype() == other.getArchetype() && volley.getPattern() == other.getPattern()
+                    && volley.getDensity() == other.getDensity() && volley.getSeed() == other.getSeed()
+                    && dx * dx + dy * dy + dz * dz < MAX_POSITION_ERROR * MAX_POSITION_ERROR
+                    && volley.getOwnerVelocity().squaredDistanceTo(other.getOwnerVelocity()) < MAX_VELOCITY_ERROR * MAX_VELOCITY_ERROR
+                    && Math.abs(MathHelper.wrapDegrees(volley.getPitch() - other.getPitch())) < MAX_ROTATION_ERROR
+                    && Math.abs(MathHelper.wrapDegrees(volley.getYaw() - other.getYaw())) < MAX_ROTATION_ERROR;
+        }
+    }
+}
@@ -62,6 +62,8 @@ public class ModTagGenerator {
                     .forceAddTag(FOXES_SPAWNABLE_ON)
                     .forceAddTag(ICE)
                     .add(Blocks.MUD);
+            getOrCreateTagBuilder(ModTags.Blocks.PEACH_LEAVES)
+                    .forceAddTag(LEAVES);
         }
     }
 
@@ -119,7 +121,9 @@ public class ModTagGenerator {
                     .addTag(ModTags.Items.DANMAKU_POWER_MODIFIERS)
                     .addTag(ModTags.Items.DANMAKU_DENSITY_MODIFIERS)
                     .addTag(ModTags.Items.DANMAKU_SPEED_MODIFIERS)
-                    .addTag(ModTags.Items.DANMAKU_DURATION_MODIFIERS);
+                    .addTag(ModTags.Items.DANMAKU_DURATION_MODIFIERS)
+                    .addTag(ModTags.Items.DANMAKU_GRAVITY_MODIFIERS)
+                    .addTag(ModTags.Items.DANMAKU_DIVERGENCE_MODIFIERS);
             getOrCreateTagBuilder(ModTags.Items.DANMAKU_POWER_MODIFIERS)
                     .add(ModItems.POWER_ITEM);
             getOrCreateTagBuilder(ModTags.Items.DANMAKU_DENSITY_MODIFIERS)
@@ -128,6 +132,10 @@ public class ModTagGenerator {
                     .add(ModItems.POINT_ITEM);
             getOrCreateTagBuilder(ModTags.Items.DANMAKU_DURATION_MODIFIERS)
                     .add(ModItems.STAR_ITEM);
+            getOrCreateTagBuilder(ModTags.Items.DANMAKU_GRAVITY_MODIFIERS)
+                    .add(ModItems.MAX_POINT_ITEM);
+            getOrCreateTagBuilder(ModTags.Items.DANMAKU_DIVERGENCE_MODIFIERS)
+                    .add(ModItems.BOMB_ITEM);
             getOrCreateTagBuilder(ModTags.Items.UNDEAD_PARTS)
                     .add(Items.ROTTEN_FLESH, Items.BONE, Items.PHANTOM_MEMBRANE, Items.ZOMBIE_HEAD,
                             Items.SKELETON_SKULL, Items.WITHER_SKELETON_SKULL);
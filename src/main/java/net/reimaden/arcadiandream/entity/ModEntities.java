@@ -20,8 +20,12 @@ import net.reimaden.arcadiandream.entity.custom.BubbleBulletEntity;
 
 public class ModEntities {
 
-    private static final int DANMAKU_RANGE = 4;
-    private static final int DANMAKU_RATE = 10;
+    // In chunks, danmaku fields send their volleys just as far
+    public static final int DANMAKU_RANGE = 4;
+    // Clients work out where ballistic bullets fly on their own, so only their spawn gets sent,
+    // plus whatever the server changes on its own: velocity, scale and removal all have their own packets
+    private static final int DANMAKU_RATE = ArcadianDream.CONFIG.ballisticBulletSync() ? Integer.MAX_VALUE : 10;
+    private static final boolean DANMAKU_VELOCITY_UPDATES = !ArcadianDream.CONFIG.ballisticBulletSync();
 
     // Danmaku
     public static final EntityType<CircleBulletEntity> CIRCLE_BULLET = Registry.register(
@@ -29,6 +33,7 @@ public class ModEntities {
             FabricEntityTypeBuilder.<CircleBulletEntity>create(SpawnGroup.MISC, CircleBulletEntity::new)
                     .dimensions(EntityDimensions.changing(0.25f, 0.25f))
                     .trackRangeChunks(DANMAKU_RANGE).trackedUpdateRate(DANMAKU_RATE)
+                    .forceTrackedVelocityUpdates(DANMAKU_VELOCITY_UPDATES)
                     .build()
     );
     public static final EntityType<BubbleBulletEntity> BUBBLE_BULLET = Registry.register(
@@ -36,6 +41,7 @@ public class ModEntities {
             FabricEntityTypeBuilder.<BubbleBulletEntity>create(SpawnGroup.MISC, BubbleBulletEntity::new)
                     .dimensions(EntityDimensions.changing(0.75f, 0.75f))
                     .trackRangeChunks(DANMAKU_RANGE).trackedUpdateRate(DANMAKU_RATE)
+                    .forceTrackedVelocityUpdates(DANMAKU_VELOCITY_UPDATES)
                     .build()
     );
     public static final EntityType<AmuletBulletEntity> AMULET_BULLET = Registry.register(
@@ -43,6 +49,7 @@ public class ModEntities {
             FabricEntityTypeBuilder.<AmuletBulletEntity>create(SpawnGroup.MISC, AmuletBulletEntity::new)
                     .dimensions(EntityDimensions.changing(0.25f, 0.25f))
                     .trackRangeChunks(DANMAKU_RANGE).trackedUpdateRate(DANMAKU_RATE)
+                    .forceTrackedVelocityUpdates(DANMAKU_VELOCITY_UPDATES)
                     .build()
     );
 
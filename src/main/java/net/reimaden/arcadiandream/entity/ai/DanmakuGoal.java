@@ -8,26 +8,36 @@ package net.reimaden.arcadiandream.entity.ai;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.ai.goal.Goal;
 import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.reimaden.arcadiandream.entity.custom.DanmakuMob;
 import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import net.reimaden.arcadiandream.util.TickProfiler;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.EnumSet;
 
 public class DanmakuGoal extends Goal {
 
+    // How far the target has to move before the mob bothers finding a new path to it
+    private static final double REPATH_DISTANCE_SQUARED = 2.0 * 2.0;
+
     private final MobEntity mob;
     private final DanmakuMob owner;
     @Nullable
     private LivingEntity target;
     private int updateCountdownTicks = -1;
     private final double mobSpeed;
-    private int seenTargetTicks;
+    // The world time the target was first seen at, the checks are spread out so counting them won't do
+    private long seenTargetSince = -1;
     private int minIntervalTicks;
     private int maxIntervalTicks;
     private final float maxShootRange;
     private final float squaredMaxShootRange;
+    // Where the target was when the current path was found
+    @Nullable
+    private Vec3d pathTarget;
 
     public DanmakuGoal(DanmakuMob mob, double mobSpeed, int intervalTicks, float maxShootRange) {
         this(mob, mobSpeed, intervalTicks, intervalTicks, maxShootRange);
@@ -65,8 +75,9 @@ public class DanmakuGoal extends Goal {
     @Override
     public void stop() {
         this.target = null;
-        this.seenTargetTicks = 0;
+        this.seenTargetSince = -1;
         this.updateCountdownTicks = -1;
+        this.pathTarget = null;
     }
 
     @Override
@@ -76,18 +87,35 @@ public class DanmakuGoal extends Goal {
 
     @Override
     public void tick() {
+        long start = TickProfiler.begin();
+        tickAttack();
+        TickProfiler.end(TickProfiler.Section.DANMAKU_GOAL, start);
+    }
+
+    private void tickAttack() {
         //noinspection DataFlowIssue
         double d = mob.squaredDistanceTo(target.getX(), target.getY(), target.getZ());
-        boolean bl = mob.getVisibilityCache().canSee(target);
-        seenTargetTicks = bl ? ++seenTargetTicks : 0;
-        if (d > (double)squaredMaxShootRange || seenTargetTicks < 5) {
-            mob.getNavigation().startMovingTo(target, mobSpeed);
-        } else {
-            mob.getNavigation().stop();
+        // Shooting still happens every tick, only the walking around is spread out
+        DanmakuGoalScheduler scheduler = DanmakuGoalScheduler.get((ServerWorld) mob.world);
+        if (scheduler.isScheduled(mob)) {
+            long time = mob.world.getTime();
+            if (!mob.getVisibilityCache().canSee(target)) {
+                seenTargetSince = -1;
+            } else if (seenTargetSince < 0) {
+                seenTargetSince = time;
+            }
+            // Same as counting every tick the target was seen for, including this one
+            long seenTargetTicks = seenTargetSince < 0 ? 0 : time - seenTargetSince + 1;
+            if (d > (double)squaredMaxShootRange || seenTargetTicks < 5) {
+                moveToTarget(scheduler);
+            } else {
+                mob.getNavigation().stop();
+                pathTarget = null;
+            }
         }
         mob.getLookControl().lookAt(target, 180.0f, 180.0f);
         if (--updateCountdownTicks == 0) {
-            if (!bl) {
+            if (!mob.getVisibilityCache().canSee(target)) {
                 return;
             }
             float f = (float)Math.sqrt(d) / maxShootRange;
@@ -99,8 +127,21 @@ public class DanmakuGoal extends Goal {
             }
             updateCountdownTicks = MathHelper.floor(f * (float)(maxIntervalTicks - minIntervalTicks) + (float)minIntervalTicks);
         } else if (updateCountdownTicks < 0) {
-            updateCountdownTicks = MathHelper.floor(MathHelper.lerp(Math.sqrt(d) / (double)maxShootRange, minIntervalTicks, maxIntervalTicks));
+            updateCountdownTicks = MathHelper.floor(MathHelper.lerp(Math.sqrt(d) / (double)maxShootRange, minIntervalTicks, maxIntervalTicks))
+                    + owner.getAttackDelay();
+        }
+    }
+
+    private void moveToTarget(DanmakuGoalScheduler scheduler) {
+        //noinspection DataFlowIssue
+        Vec3d pos = target.getPos();
+        if (pathTarget != null && !mob.getNavigation().isIdle() && pathTarget.squaredDistanceTo(pos) < REPATH_DISTANCE_SQUARED) {
+            return;
+        }
+        if (!scheduler.tryFindPath()) {
+            return;
         }
+        pathTarget = mob.getNavigation().startMovingTo(target, mobSpeed) ? pos : null;
     }
 
     private void setMinIntervalTicks(int minIntervalTicks) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.entity.ai;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * Spreads the work of every {@link DanmakuGoal} in a world over several ticks.
+ * <p>
+ * Mobs are put in buckets by their id, and only look for their target and walk towards it
+ * on their bucket's tick. On top of that, the whole world only gets a few new paths per tick,
+ * and mobs that didn't get one try again on their next turn.
+ */
+public class DanmakuGoalScheduler {
+
+    public static final int BUCKETS = 4;
+    private static final int MAX_PATHS_PER_TICK = 16;
+
+    private final ServerWorld world;
+    private long time = -1;
+    private int paths;
+
+    public DanmakuGoalScheduler(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static DanmakuGoalScheduler get(ServerWorld world) {
+        return ((IDanmakuGoalSchedulerHolder) world).getDanmakuGoalScheduler();
+    }
+
+    public boolean isScheduled(Entity entity) {
+        return Math.floorMod(world.getTime() + entity.getId(), BUCKETS) == 0;
+    }
+
+    /**
+     * @return whether there's any pathfinding left for this tick, using some of it up if there is
+     */
+    public boolean tryFindPath() {
+        long now = world.getTime();
+        if (now != time) {
+            time = now;
+            paths = 0;
+        }
+
+        if (paths >= MAX_PATHS_PER_TICK) {
+            return false;
+        }
+        paths++;
+        return true;
+    }
+}
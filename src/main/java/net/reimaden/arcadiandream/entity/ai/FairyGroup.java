@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.entity.ai;
+
+import com.google.common.collect.MapMaker;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.ai.TargetPredicate;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.world.World;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The fairies that spawned together, which look for targets and get angry as one.
+ * <p>
+ * Only one fairy of the group actually scans for players every {@link #SCAN_INTERVAL} ticks,
+ * the others just check that they'd go for the same one. When any of them gets hurt, the whole
+ * group gets angry at the attacker at once, and each member waits a little longer than the one
+ * before it to open fire, so their volleys don't all land on the same tick.
+ * <p>
+ * Groups only live as long as one of their fairies is loaded, and are found again by id
+ * when one of them is loaded back in.
+ */
+public class FairyGroup {
+
+    // Groups are only kept alive by their members
+    private static final Map<UUID, FairyGroup> GROUPS = new MapMaker().weakValues().makeMap();
+
+    private static final int SCAN_INTERVAL = 10;
+    private static final int ATTACK_STAGGER_TICKS = 4;
+
+    private final UUID id;
+    private final List<FairyEntity> members = new ArrayList<>(3);
+    private final TargetPredicate scanPredicate = TargetPredicate.createAttackable().ignoreVisibility().setPredicate(this::isAngryAt);
+
+    @Nullable
+    private World scanWorld;
+    private long scanTime;
+    @Nullable
+    private PlayerEntity scanned;
+
+    private FairyGroup(UUID id) {
+        this.id = id;
+    }
+
+    public static FairyGroup create() {
+        return get(UUID.randomUUID());
+    }
+
+    public static FairyGroup get(UUID id) {
+        return GROUPS.computeIfAbsent(id, FairyGroup::new);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void join(FairyEntity fairy) {
+        members.removeIf(FairyEntity::isRemoved);
+        if (!members.contains(fairy)) {
+            members.add(fairy);
+        }
+    }
+
+    public void leave(FairyEntity fairy) {
+        members.remove(fairy);
+    }
+
+    /**
+     * Looks for the closest player the group is angry at, reusing the last scan if it's recent enough.
+     *
+     * @param predicate the fairy's own predicate, which the player has to pass too
+     */
+    @Nullable
+    public PlayerEntity findTarget(FairyEntity fairy, TargetPredicate predicate, double range) {
+        long time = fairy.world.getTime();
+        if (scanWorld != fairy.world || time - scanTime >= SCAN_INTERVAL || time < scanTime) {
+            members.removeIf(FairyEntity::isRemoved);
+            scanWorld = fairy.world;
+            scanTime = time;
+            scanned = fairy.world.getClosestPlayer(scanPredicate.setBaseMaxDistance(range), fairy, fairy.getX(), fairy.getEyeY(), fairy.getZ());
+        }
+
+        if (scanned == null || scanned.isRemoved() || !predicate.test(fairy, scanned)) {
+            return null;
+        }
+        return scanned;
+    }
+
+    private boolean isAngryAt(LivingEntity entity) {
+        for (FairyEntity member : members) {
+            if (!member.isRemoved() && member.shouldAngerAt(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes every other fairy of the group go after whoever hurt one of them.
+     */
+    public void broadcastAnger(FairyEntity victim, LivingEntity attacker) {
+        if (attacker instanceof FairyEntity) {
+            return;
+        }
+
+        for (FairyEntity member : members) {
+            if (member == victim || member.isRemoved() || member.world != victim.world || !member.canTarget(attacker)) {
+                continue;
+            }
+            if (member.getTarget() == attacker && attacker.getUuid().equals(member.getAngryAt())) {
+                continue;
+            }
+
+            member.setAngryAt(attacker.getUuid());
+            member.chooseRandomAngerTime();
+            member.setTarget(attacker);
+        }
+
+        // Everyone has someone new to look for
+        scanWorld = null;
+    }
+
+    /**
+     * @return how many ticks the fairy holds its first volley back, depending on when it joined the group
+     */
+    public int getAttackDelay(FairyEntity fairy) {
+        return Math.max(members.indexOf(fairy), 0) * ATTACK_STAGGER_TICKS;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.entity.ai;
+
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.ai.goal.ActiveTargetGoal;
+import net.minecraft.entity.player.PlayerEntity;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+
+import java.util.function.Predicate;
+
+/**
+ * Same as targeting the closest player, but the scan is shared by the fairy's whole {@link FairyGroup}.
+ */
+public class FairyGroupTargetGoal extends ActiveTargetGoal<PlayerEntity> {
+
+    private final FairyEntity fairy;
+
+    public FairyGroupTargetGoal(FairyEntity fairy, int reciprocalChance, boolean checkVisibility, boolean checkCanNavigate, Predicate<LivingEntity> targetPredicate) {
+        super(fairy, PlayerEntity.class, reciprocalChance, checkVisibility, checkCanNavigate, targetPredicate);
+        this.fairy = fairy;
+    }
+
+    @Override
+    protected void findClosestTarget() {
+        double range = getFollowRange();
+        targetEntity = fairy.getGroup().findTarget(fairy, targetPredicate.setBaseMaxDistance(range), range);
+    }
+}
@@ -8,18 +8,48 @@ package net.reimaden.arcadiandream.entity.custom;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.data.DataTracker;
+import net.minecraft.entity.data.TrackedData;
+import net.minecraft.entity.data.TrackedDataHandlerRegistry;
 import net.minecraft.entity.projectile.thrown.ThrownItemEntity;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.network.packet.s2c.play.EntitySpawnS2CPacket;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.hit.EntityHitResult;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.damage.ModDamageSources;
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
+import net.reimaden.arcadiandream.danmaku.BulletTrajectory;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import net.reimaden.arcadiandream.item.custom.danmaku.DyeableBullet;
+import net.reimaden.arcadiandream.jfr.BulletHitEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
 import net.reimaden.arcadiandream.particle.ModParticles;
 import net.reimaden.arcadiandream.sound.ModSounds;
+import net.reimaden.arcadiandream.util.TickProfiler;
+import org.jetbrains.annotations.Nullable;
 
 public class BaseBulletEntity extends ThrownItemEntity {
 
+    // Only the color and gravity matter to clients, so that's all that gets tracked
+    private static final TrackedData<Integer> COLOR = DataTracker.registerData(BaseBulletEntity.class, TrackedDataHandlerRegistry.INTEGER);
+    private static final TrackedData<Float> GRAVITY = DataTracker.registerData(BaseBulletEntity.class, TrackedDataHandlerRegistry.FLOAT);
+
+    @Nullable
+    private BulletArchetype archetype;
+    // Ticks the bullet hasn't been moved for yet while nobody's around, or -1 if it's awake
+    private int dormantTicks = -1;
+
+    // Where the client last heard the bullet was, it works out the rest of the arc from there
+    private Vec3d syncedPos = Vec3d.ZERO;
+    private Vec3d syncedVelocity = Vec3d.ZERO;
+    private int syncedAge;
+
     public BaseBulletEntity(EntityType<? extends ThrownItemEntity> entityType, World world) {
         super(entityType, world);
     }
@@ -42,6 +72,53 @@ public class BaseBulletEntity extends ThrownItemEntity {
         return null;
     }
 
+    @Override
+    protected void initDataTracker() {
+        super.initDataTracker();
+        dataTracker.startTracking(COLOR, DyeableBullet.DEFAULT_COLOR);
+        dataTracker.startTracking(GRAVITY, 0.0f);
+    }
+
+    @Override
+    public ItemStack getStack() {
+        return getBulletType().getRenderStack(dataTracker.get(COLOR));
+    }
+
+    public BulletType getBulletType() {
+        return BulletType.fromItem(getDefaultItem());
+    }
+
+    public BulletArchetype getArchetype() {
+        if (archetype == null) {
+            archetype = BulletArchetype.getDefault(getBulletType());
+        }
+        return archetype;
+    }
+
+    public void setArchetype(BulletArchetype archetype) {
+        this.archetype = archetype;
+        dataTracker.set(COLOR, archetype.getColor());
+        dataTracker.set(GRAVITY, archetype.getGravity());
+    }
+
+    @Override
+    public void writeCustomDataToNbt(NbtCompound nbt) {
+        super.writeCustomDataToNbt(nbt);
+        nbt.put("Archetype", getArchetype().writeNbt(new NbtCompound()));
+    }
+
+    @Override
+    public void readCustomDataToNbt(NbtCompound nbt) {
+        super.readCustomDataToNbt(nbt);
+        if (nbt.contains("Archetype", NbtElement.COMPOUND_TYPE)) {
+            setArchetype(BulletArchetype.fromNbt(nbt.getCompound("Archetype")));
+        } else if (!getItem().isEmpty()) {
+            // Bullets from older worlds still carry their own copy of the shot
+            setArchetype(BulletArchetype.fromStack(getItem()));
+            setItem(ItemStack.EMPTY);
+        }
+    }
+
     @Override
     public boolean doesRenderOnFire() {
         return false;
@@ -49,15 +126,106 @@ public class BaseBulletEntity extends ThrownItemEntity {
 
     @Override
     public void tick() {
-        super.tick();
-        if (!world.isClient()) {
+        if (world.isClient()) {
+            tickClient();
+            return;
+        }
+
+        long start = TickProfiler.begin();
+        try {
+            if (tickDormant()) {
+                return;
+            }
+
+            super.tick();
             if (age >= getDuration()) {
                 kill();
                 despawnParticle((ServerWorld) world);
             }
+        } finally {
+            TickProfiler.end(TickProfiler.Section.BULLET_TICK, start);
         }
     }
 
+    /**
+     * Moves the bullet along its arc from where the server last synced it, instead of simulating it.
+     * Hits and despawns are up to the server, which removes the bullet for everyone when they happen.
+     *
+     * @see BulletTrajectory
+     */
+    private void tickClient() {
+        int ticks = age - syncedAge;
+        float gravity = getGravity();
+        setPosition(syncedPos.x + syncedVelocity.x * ticks,
+                BulletTrajectory.getY(syncedPos.y, syncedVelocity.y, gravity, ticks),
+                syncedPos.z + syncedVelocity.z * ticks);
+        setVelocity(syncedVelocity.x, BulletTrajectory.getVelocityY(syncedVelocity.y, gravity, ticks), syncedVelocity.z);
+        updateRotation();
+    }
+
+    private void resync() {
+        syncedPos = getPos();
+        syncedVelocity = getVelocity();
+        syncedAge = age;
+    }
+
+    @Override
+    public void onSpawnPacket(EntitySpawnS2CPacket packet) {
+        super.onSpawnPacket(packet);
+        resync();
+    }
+
+    @Override
+    public void updateTrackedPositionAndAngles(double x, double y, double z, float yaw, float pitch, int interpolationSteps, boolean interpolate) {
+        super.updateTrackedPositionAndAngles(x, y, z, yaw, pitch, interpolationSteps, interpolate);
+        resync();
+    }
+
+    @Override
+    public void setVelocityClient(double x, double y, double z) {
+        super.setVelocityClient(x, y, z);
+        resync();
+    }
+
+    /**
+     * Skips the usual tick while no player is around, and moves the bullet along its arc every few ticks instead.
+     *
+     * @return whether the bullet is dormant, and shouldn't tick normally
+     * @see BulletTrajectory
+     */
+    private boolean tickDormant() {
+        boolean checkWatched = BulletTrajectory.shouldCheckWatched(age, getId());
+        if (dormantTicks < 0) {
+            if (!checkWatched || BulletTrajectory.isWatched(world, getX(), getY(), getZ())) {
+                return false;
+            }
+            dormantTicks = 0;
+        }
+
+        int ticks = ++dormantTicks;
+        boolean expired = age >= getDuration();
+        boolean watched = checkWatched && BulletTrajectory.isWatched(world, getX(), getY(), getZ());
+        if (ticks < BulletTrajectory.DORMANT_STEP && !expired && !watched) {
+            return true;
+        }
+
+        Vec3d velocity = getVelocity();
+        float gravity = getGravity();
+        if (BulletTrajectory.hitsBlock(world, getX(), getY(), getZ(), velocity.x, velocity.y, velocity.z, gravity, ticks)) {
+            discard();
+            return true;
+        }
+
+        setPosition(getX() + velocity.x * ticks, BulletTrajectory.getY(getY(), velocity.y, gravity, ticks), getZ() + velocity.z * ticks);
+        setVelocity(velocity.x, BulletTrajectory.getVelocityY(velocity.y, gravity, ticks), velocity.z);
+        dormantTicks = watched ? -1 : 0;
+
+        if (expired || getY() < world.getBottomY() - 64) {
+            discard();
+        }
+        return true;
+    }
+
     @Override
     protected void onEntityHit(EntityHitResult entityHitResult) {
         super.onEntityHit(entityHitResult);
@@ -71,7 +239,12 @@ public class BaseBulletEntity extends ThrownItemEntity {
                 return;
             }
         }
+
+        BulletHitEvent event = new BulletHitEvent();
+        event.begin();
         applyDamage(entity, owner);
+        event.commit(entity, getBulletType().getDamage(entity, getPower()), age);
+        ModMetrics.BULLET_HITS.inc();
     }
 
     protected void applyDamage(Entity target, Entity owner) {
@@ -106,35 +279,17 @@ public class BaseBulletEntity extends ThrownItemEntity {
                 1, 0, 0, 0, 0);
     }
 
-    public void cancelParticle(ServerWorld serverWorld) {
-        serverWorld.spawnParticles(ModParticles.BULLET_CANCEL,
-                getPos().getX(), getPos().getY() + getHeight() / 2, getPos().getZ(),
-                1, 0, 0, 0, 0);
-    }
-
     protected float getPower() {
-        if (getStack().hasNbt()) {
-            return getStack().getOrCreateNbt().getFloat("power");
-        } else {
-            return 0.0f;
-        }
+        return getArchetype().getPower();
     }
 
     protected int getDuration() {
-        if (getStack().hasNbt()) {
-            return getStack().getOrCreateNbt().getInt("duration");
-        } else {
-            return 200;
-        }
+        return getArchetype().getDuration();
     }
 
     @Override
     protected float getGravity() {
-        if (getStack().hasNbt()) {
-            return getStack().getOrCreateNbt().getFloat("gravity");
-        } else {
-            return 0.0f;
-        }
+        return world.isClient() ? dataTracker.get(GRAVITY) : getArchetype().getGravity();
     }
 
     public float getSoundPitch() {
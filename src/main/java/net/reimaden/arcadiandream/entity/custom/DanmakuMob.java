@@ -8,4 +8,11 @@ package net.reimaden.arcadiandream.entity.custom;
 import net.minecraft.entity.ai.RangedAttackMob;
 
 public interface DanmakuMob extends RangedAttackMob {
+
+    /**
+     * @return how many extra ticks to wait before the first volley at a new target
+     */
+    default int getAttackDelay() {
+        return 0;
+    }
 }
@@ -32,14 +32,19 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.intprovider.UniformIntProvider;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.*;
+import net.reimaden.arcadiandream.danmaku.BulletType;
 import net.reimaden.arcadiandream.entity.ai.DanmakuGoal;
+import net.reimaden.arcadiandream.entity.ai.FairyGroup;
+import net.reimaden.arcadiandream.entity.ai.FairyGroupTargetGoal;
 import net.reimaden.arcadiandream.entity.variant.FairyPersonality;
 import net.reimaden.arcadiandream.entity.variant.FairyVariant;
 import net.reimaden.arcadiandream.item.custom.danmaku.BaseShotItem;
 import net.reimaden.arcadiandream.item.custom.danmaku.MobBulletPatterns;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
 import net.reimaden.arcadiandream.sound.ModSounds;
 import net.reimaden.arcadiandream.util.ColorMap;
 import net.reimaden.arcadiandream.util.ModTags;
+import net.reimaden.arcadiandream.util.TickProfiler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import software.bernie.geckolib.animatable.GeoEntity;
@@ -61,6 +66,9 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
     private static final TrackedData<Integer> VARIANT = DataTracker.registerData(FairyEntity.class, TrackedDataHandlerRegistry.INTEGER);
     private static final TrackedData<Integer> PERSONALITY = DataTracker.registerData(FairyEntity.class, TrackedDataHandlerRegistry.INTEGER);
     private final int bulletColor;
+    // The fairies this one spawned with, only used on the server
+    @Nullable
+    private FairyGroup group;
 
     private final AnimatableInstanceCache cache = GeckoLibUtil.createInstanceCache(this);
 
@@ -88,7 +96,7 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         goalSelector.add(5, new LookAroundGoal(this));
 
         targetSelector.add(1, new RevengeGoal(this, FairyEntity.class));
-        targetSelector.add(2, new ActiveTargetGoal<>(this, PlayerEntity.class, 10, true, false, this::shouldAngerAt));
+        targetSelector.add(2, new FairyGroupTargetGoal(this, 10, true, false, this::shouldAngerAt));
         targetSelector.add(3, new UniversalAngerGoal<>(this, false));
     }
 
@@ -103,6 +111,8 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
 
     @Override
     public void tickMovement() {
+        long start = TickProfiler.begin();
+        long metricsStart = ModMetrics.begin();
         super.tickMovement();
         Vec3d vec3d = getVelocity();
         if (!onGround && vec3d.y < 0.0 && !(moveControl.getTargetY() < getY())) {
@@ -110,7 +120,49 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         }
         if (!world.isClient()) {
             tickAngerLogic((ServerWorld) world, true);
+            ModMetrics.observeSince(ModMetrics.FAIRY_AI, metricsStart);
+        }
+        TickProfiler.end(TickProfiler.Section.FAIRY_MOVEMENT, start);
+    }
+
+    @Override
+    public boolean damage(DamageSource source, float amount) {
+        if (!super.damage(source, amount)) {
+            return false;
+        }
+        if (!world.isClient() && source.getAttacker() instanceof LivingEntity attacker) {
+            getGroup().broadcastAnger(this, attacker);
+        }
+        return true;
+    }
+
+    @Override
+    public void remove(RemovalReason reason) {
+        super.remove(reason);
+        if (group != null) {
+            group.leave(this);
+        }
+    }
+
+    public FairyGroup getGroup() {
+        if (group == null) {
+            // Fairies from older worlds, or spawned on their own
+            setGroup(FairyGroup.create());
+        }
+        return group;
+    }
+
+    private void setGroup(FairyGroup group) {
+        if (this.group != null) {
+            this.group.leave(this);
         }
+        this.group = group;
+        group.join(this);
+    }
+
+    @Override
+    public int getAttackDelay() {
+        return getGroup().getAttackDelay(this);
     }
 
     @Override
@@ -217,6 +269,9 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         nbt.putInt("Variant", getTypeVariant());
         nbt.putInt("Personality", getTypePersonality());
         writeAngerToNbt(nbt);
+        if (group != null) {
+            nbt.putUuid("Group", group.getId());
+        }
     }
 
     @Override
@@ -225,6 +280,9 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         dataTracker.set(VARIANT, nbt.getInt("Variant"));
         dataTracker.set(PERSONALITY, nbt.getInt("Personality"));
         readAngerFromNbt(world, nbt);
+        if (nbt.containsUuid("Group")) {
+            setGroup(FairyGroup.get(nbt.getUuid("Group")));
+        }
     }
 
     @Override
@@ -242,6 +300,14 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         setVariant(variant);
         setPersonality(personality);
 
+        // Fairies spawned in the same pack share their data, and with it their group
+        if (entityData instanceof FairyData fairyData) {
+            setGroup(fairyData.group);
+        } else {
+            setGroup(FairyGroup.create());
+            entityData = new FairyData(group);
+        }
+
         return super.initialize(world, difficulty, spawnReason, entityData, entityNbt);
     }
 
@@ -265,7 +331,7 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         return this.dataTracker.get(PERSONALITY);
     }
 
-    private void setPersonality(FairyPersonality personality) {
+    public void setPersonality(FairyPersonality personality) {
         dataTracker.set(PERSONALITY, personality.getId() & 255);
     }
 
@@ -312,6 +378,9 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         setAngerTime(ANGER_TIME_RANGE.get(random));
     }
 
+    private record FairyData(FairyGroup group) implements EntityData {
+    }
+
     private static class AttackPatterns implements MobBulletPatterns {
 
         public void aggressive(FairyEntity fairy, LivingEntity target, World world) {
@@ -342,5 +411,10 @@ public class FairyEntity extends HostileEntity implements GeoEntity, DanmakuMob,
         public @NotNull BaseBulletEntity getBullet(World world, LivingEntity user) {
             return new CircleBulletEntity(world, user);
         }
+
+        @Override
+        public BulletType getBulletType() {
+            return BulletType.CIRCLE;
+        }
     }
 }
@@ -6,10 +6,56 @@
 package net.reimaden.arcadiandream.event;
 
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.reimaden.arcadiandream.danmaku.BulletPatternLoader;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.danmaku.DanmakuPrediction;
+import net.reimaden.arcadiandream.item.custom.danmaku.ShotModifierEngine;
+import net.reimaden.arcadiandream.networking.InventorySync;
+import net.reimaden.arcadiandream.networking.packet.DanmakuPatternsS2CPacket;
+import net.reimaden.arcadiandream.recipe.RitualRecipeIndex;
+import net.reimaden.arcadiandream.util.ModLootTableModifiers;
+import net.reimaden.arcadiandream.util.TickProfiler;
 
 public class ModEvents {
 
     public static void register() {
         ServerPlayerEvents.COPY_FROM.register(new ModPlayerEventCopyFrom());
+        ServerTickEvents.END_WORLD_TICK.register(world -> DanmakuField.get(world).tick());
+        ServerTickEvents.END_SERVER_TICK.register(InventorySync::flush);
+        ServerTickEvents.END_SERVER_TICK.register(server -> TickProfiler.endTick());
+        DanmakuPrediction.register();
+
+        // Clients need the server's patterns to rebuild its volleys
+        ResourceManagerHelper.get(ResourceType.SERVER_DATA).registerReloadListener(new BulletPatternLoader());
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) ->
+                DanmakuPatternsS2CPacket.send(handler.getPlayer(), BulletPatternManager.getServer()));
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+            RitualRecipeIndex.invalidate();
+            ShotModifierEngine.reload();
+            ModLootTableModifiers.invalidate();
+            for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+                DanmakuPatternsS2CPacket.send(player, BulletPatternManager.getServer());
+            }
+        });
+
+        // Built up front, so the first ritual or shot doesn't have to wait for them
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            RitualRecipeIndex.get(server.getRecipeManager());
+            ShotModifierEngine.reload();
+            ModLootTableModifiers.invalidate();
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            RitualRecipeIndex.invalidate();
+            ShotModifierEngine.invalidate();
+            InventorySync.clear();
+            TickProfiler.stop();
+        });
     }
 }
@@ -11,6 +11,7 @@ import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.reimaden.arcadiandream.ArcadianDream;
 import net.reimaden.arcadiandream.block.ModBlocks;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
 import net.reimaden.arcadiandream.entity.ModEntities;
 import net.reimaden.arcadiandream.item.custom.armor.OrdinaryHatItem;
 import net.reimaden.arcadiandream.item.custom.consumables.HealingCharmItem;
@@ -106,13 +107,13 @@ public class ModItems {
     public static final Item AMULET_BULLET_CORE = registerItem("amulet_bullet_core", new BulletCoreItem(new FabricItemSettings()));
 
     public static final Item CIRCLE_SHOT = registerItem("circle_shot", new CircleShotItem(new FabricItemSettings().maxDamage(100),
-            1, 0.8f, 100, 2, 0.0f, 0.0f, "spread", 1,
+            1, 0.8f, 100, 2, 0.0f, 0.0f, BulletPattern.SPREAD, 1,
             12, 2.0f, 200, 100, 90, 25));
     public static final Item BUBBLE_SHOT = registerItem("bubble_shot", new BubbleShotItem(new FabricItemSettings().maxDamage(250),
-            3, 0.4f, 100, 10, 0.0f, 0.0f, "spread", 1,
+            3, 0.4f, 100, 10, 0.0f, 0.0f, BulletPattern.SPREAD, 1,
             15, 0.8f, 200, 200, 90, 12));
     public static final Item AMULET_SHOT = registerItem("amulet_shot", new AmuletShotItem(new FabricItemSettings().maxDamage(100),
-            1, 0.8f, 100, 5, 0.0f, 0.0f, "spread", 1,
+            1, 0.8f, 100, 5, 0.0f, 0.0f, BulletPattern.SPREAD, 1,
             10, 1.8f, 200, 150, 90, 20));
 
     // Music Discs
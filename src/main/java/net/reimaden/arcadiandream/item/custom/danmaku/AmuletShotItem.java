@@ -10,6 +10,7 @@ import net.minecraft.client.item.TooltipContext;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.ArcadianDream;
 import net.reimaden.arcadiandream.entity.custom.AmuletBulletEntity;
@@ -21,7 +22,7 @@ import java.util.List;
 
 public class AmuletShotItem extends BaseShotItem {
 
-    public AmuletShotItem(Settings settings, float power, float speed, int duration, int cooldown, float gravity, float divergence, String pattern, int density, float maxPower, float maxSpeed, int maxDuration, int maxCooldown, float maxDivergence, int maxDensity) {
+    public AmuletShotItem(Settings settings, float power, float speed, int duration, int cooldown, float gravity, float divergence, Identifier pattern, int density, float maxPower, float maxSpeed, int maxDuration, int maxCooldown, float maxDivergence, int maxDensity) {
         super(settings, power, speed, duration, cooldown, gravity, divergence, pattern, density, maxPower, maxSpeed, maxDuration, maxCooldown, maxDivergence, maxDensity);
     }
 
@@ -17,10 +17,13 @@ import net.minecraft.text.MutableText;
 import net.minecraft.text.Style;
 import net.minecraft.text.Text;
 import net.minecraft.util.Hand;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
 import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
 import net.reimaden.arcadiandream.sound.ModSounds;
 import net.reimaden.arcadiandream.util.ColorMap;
@@ -42,7 +45,7 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
     private final int cooldown;
     private final float gravity;
     private final float divergence;
-    private final String pattern;
+    private final Identifier pattern;
     private final int density;
 
     // Max values for the properties
@@ -56,7 +59,7 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
 
     // Dear God, please forgive me for this constructor
     public BaseShotItem(Settings settings, float power, float speed, int duration, int cooldown, float gravity,
-                        float divergence, String pattern, int density, float maxPower, float maxSpeed, int maxDuration,
+                        float divergence, Identifier pattern, int density, float maxPower, float maxSpeed, int maxDuration,
                         int maxCooldown, float maxDivergence, int maxDensity) {
         super(settings);
         this.power = power;
@@ -88,7 +91,9 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         ItemStack stack = user.getStackInHand(hand);
         NbtCompound nbt = stack.getOrCreateNbt();
 
-        if (!isUsable(stack)) {
+        // Both sides know the same patterns, so they agree on whether the shot can be fired
+        BulletPattern pattern = BulletPatternManager.get(world).get(nbt.getString("pattern"));
+        if (!isUsable(stack) || pattern == null) {
             return TypedActionResult.pass(stack);
         }
 
@@ -102,18 +107,11 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         final int density = nbt.getInt("density");
         final float speed = nbt.getFloat("speed");
         final float divergence = nbt.getFloat("divergence");
-        final float n = speed / density;
 
         if (!world.isClient()) {
-            switch (nbt.getString("pattern").toLowerCase()) {
-                case "spread" -> createSpread(world, user, stack, density, speed, divergence);
-                case "ray" -> createRay(world, user, stack, density, speed, divergence, n);
-                case "ring" -> createRing(world, user, stack, density, speed, divergence);
-                case "cone" -> createCone(world, user, stack, density, speed, divergence);
-                case "double" -> createDouble(world, user, stack, density, speed, divergence, n);
-                case "triple" -> createTriple(world, user, stack, density, speed, divergence, n);
-                default -> throw new IllegalArgumentException("No valid bullet pattern found!");
-            }
+            createPattern(world, user, stack, pattern, density, speed, divergence);
+        } else {
+            predictPattern(user, stack, pattern, density);
         }
 
         user.incrementStat(Stats.USED.getOrCreateStat(this));
@@ -137,7 +135,7 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         super.postProcessNbt(nbt);
 
         String[] keys = {"power", "speed", "duration", "cooldown", "gravity", "divergence", "pattern", "density"};
-        Object[] values = {power, speed, duration, cooldown, gravity, divergence, pattern, density};
+        Object[] values = {power, speed, duration, cooldown, gravity, divergence, pattern.toString(), density};
 
         // Set default values
         for (int i = 0; i < keys.length; i++) {
@@ -198,7 +196,7 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
             tooltip.add(Text.translatable(keyPrefix + "cooldown", ((float) cooldown / 20) * ArcadianDream.CONFIG.danmakuCooldownMultiplier()));
             tooltip.add(Text.translatable(keyPrefix + "gravity", formattedGravity));
             tooltip.add(Text.translatable(keyPrefix + "divergence", formattedDivergence));
-            tooltip.add(Text.translatable(keyPrefix + "pattern", Text.translatable("item." + ArcadianDream.MOD_ID + ".bullet.pattern_" + pattern.toLowerCase())));
+            tooltip.add(Text.translatable(keyPrefix + "pattern", Text.translatable(BulletPattern.getTranslationKey(pattern))));
             tooltip.add(Text.translatable(keyPrefix + "density", density));
             tooltip.add(Text.translatable(keyPrefix + "color", formattedColor).setStyle(Style.EMPTY.withColor(getColor(stack))));
         }
@@ -255,18 +253,16 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         setParamInt(stack, "cooldown", cooldown, maxCooldown);
     }
 
-    @SuppressWarnings("unused")
     public void setGravity(ItemStack stack, float gravity) {
         setParamFloat(stack, "gravity", gravity, maxGravity);
     }
 
-    @SuppressWarnings("unused")
     public void setDivergence(ItemStack stack, float divergence) {
         setParamFloat(stack, "divergence", divergence, maxDivergence);
     }
 
-    public void setPattern(ItemStack stack, String pattern) {
-        stack.getOrCreateNbt().putString("pattern", pattern);
+    public void setPattern(ItemStack stack, Identifier pattern) {
+        stack.getOrCreateNbt().putString("pattern", pattern.toString());
     }
 
     public void setDensity(ItemStack stack, int density) {
@@ -297,12 +293,10 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         return getParamInt(stack, "cooldown");
     }
 
-    @SuppressWarnings("unused")
     public float getGravity(ItemStack stack) {
         return getParamFloat(stack, "gravity");
     }
 
-    @SuppressWarnings("unused")
     public float getDivergence(ItemStack stack) {
         return getParamFloat(stack, "divergence");
     }
@@ -323,12 +317,14 @@ public class BaseShotItem extends Item implements DyeableBullet, BulletPatterns
         return maxDuration;
     }
 
-    @SuppressWarnings("unused")
+    public int getMaxCooldown() {
+        return maxCooldown;
+    }
+
     public float getMaxGravity() {
         return maxGravity;
     }
 
-    @SuppressWarnings("unused")
     public float getMaxDivergence() {
         return maxDivergence;
     }
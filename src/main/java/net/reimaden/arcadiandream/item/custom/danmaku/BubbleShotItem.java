@@ -6,6 +6,7 @@
 package net.reimaden.arcadiandream.item.custom.danmaku;
 
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
 import net.reimaden.arcadiandream.entity.custom.BubbleBulletEntity;
@@ -14,7 +15,7 @@ import org.jetbrains.annotations.NotNull;
 public class BubbleShotItem extends BaseShotItem {
 
     public BubbleShotItem(Settings settings, float power, float speed, int duration, int cooldown, float gravity,
-                          float divergence, String pattern, int density, float maxPower, float maxSpeed, int maxDuration,
+                          float divergence, Identifier pattern, int density, float maxPower, float maxSpeed, int maxDuration,
                           int maxCooldown, float maxDivergence, int maxDensity) {
         super(settings, power, speed, duration, cooldown, gravity, divergence, pattern,
                 density, maxPower, maxSpeed, maxDuration, maxCooldown, maxDivergence, maxDensity);
@@ -8,139 +8,83 @@ package net.reimaden.arcadiandream.item.custom.danmaku;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
-import net.minecraft.util.math.MathHelper;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.danmaku.client.DanmakuPredictor;
 import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.jfr.DanmakuVolleyEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
 import org.jetbrains.annotations.NotNull;
 
 public interface BulletPatterns {
 
     default void createSpread(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
-        float pitch = user.getPitch();
-        float yaw = user.getYaw();
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            bulletEntity.setVelocity(user, pitch, yaw, 0.0f, speed, divergence + density - 1);
-            world.spawnEntity(bulletEntity);
-        }
+        createPattern(world, user, stack, BulletPattern.SPREAD, density, speed, divergence);
     }
 
-    default void createRay(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence, float n) {
-        float pitch = user.getPitch();
-        float yaw = user.getYaw();
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            bulletEntity.setVelocity(user, pitch, yaw, 0.0f, speed, divergence);
-            world.spawnEntity(bulletEntity);
-
-            speed = speed - n;
-        }
+    default void createRay(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
+        createPattern(world, user, stack, BulletPattern.RAY, density, speed, divergence);
     }
 
     default void createRing(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
-        float pitch = user.getPitch();
-        float yaw = user.getYaw();
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            float angle = (i * (360f / density)) + 180;
-            Vec3d bullet = new Vec3d(0, 0, 1);
-
-            bullet = bullet.rotateY(angle * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateX(pitch * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
-
-            bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), speed, divergence);
-
-            world.spawnEntity(bulletEntity);
-        }
+        createPattern(world, user, stack, BulletPattern.RING, density, speed, divergence);
     }
 
     default void createCone(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
-        float pitch = user.getPitch();
-        float yaw = user.getYaw();
-        final float cone = 45f;
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            float angle = (i * (cone / (density - 1)));
-            Vec3d bullet = new Vec3d(0, 0, 1);
+        createPattern(world, user, stack, BulletPattern.CONE, density, speed, divergence);
+    }
 
-            bullet = bullet.rotateY((angle + (180 - (cone / 2))) * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateX(pitch * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
+    default void createDouble(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
+        createPattern(world, user, stack, BulletPattern.DOUBLE, density, speed, divergence);
+    }
 
-            bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), speed, divergence);
+    default void createTriple(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence) {
+        createPattern(world, user, stack, BulletPattern.TRIPLE, density, speed, divergence);
+    }
 
-            world.spawnEntity(bulletEntity);
-        }
+    private void createPattern(World world, PlayerEntity user, ItemStack stack, Identifier pattern, int density, float speed, float divergence) {
+        createPattern(world, user, stack, BulletPatternManager.get(world).require(pattern), density, speed, divergence);
     }
 
-    default void createDouble(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence, float n) {
+    default void createPattern(World world, PlayerEntity user, ItemStack stack, BulletPattern pattern, int density, float speed, float divergence) {
         float pitch = user.getPitch();
         float yaw = user.getYaw();
-        final float spread = 22.5f;
-        final int rays = Math.min(density, 2);
 
-        for (int j = 0; j < rays; j++) {
-            float s = speed;
+        BulletArchetype archetype = BulletArchetype.fromStack(stack);
 
-            for (int i = 0; i < (density <= 2 ? Math.ceil((float) density / 2) : Math.floor((float) density / 2)); i++) {
-                BaseBulletEntity bulletEntity = getBullet(world, user);
-                bulletEntity.setItem(stack);
+        DanmakuVolleyEvent event = new DanmakuVolleyEvent();
+        event.begin();
 
-                float angle = (spread * j) - spread / 2;
-                Vec3d bullet = new Vec3d(0, 0, 1);
-
-                bullet = bullet.rotateY((angle + 180) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateX(pitch * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
+        if (DanmakuField.isEnabled(world)) {
+            DanmakuField.get((ServerWorld) world).fire(archetype, user, pattern, pitch, yaw, density);
+        } else {
+            Vec3d ownerVelocity = pattern.getInheritedVelocity(user);
+            pattern.forEachShot(pitch, yaw, density, speed, divergence, (x, y, z, s, d) -> {
+                BaseBulletEntity bulletEntity = getBullet(world, user);
+                bulletEntity.setArchetype(archetype);
 
-                bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), s, divergence);
+                bulletEntity.setVelocity(x, y, z, s, d);
+                bulletEntity.setVelocity(bulletEntity.getVelocity().add(ownerVelocity));
                 world.spawnEntity(bulletEntity);
-
-                s = s - n;
-            }
+            });
         }
-    }
 
-    default void createTriple(World world, PlayerEntity user, ItemStack stack, int density, float speed, float divergence, float n) {
-        float pitch = user.getPitch();
-        float yaw = user.getYaw();
-        final float spread = 15f;
-        final int rays = Math.min(density, 3);
-
-        for (int j = 0; j < rays; j++) {
-            float s = speed;
-
-            for (int i = 0; i < (density <= 3 ? Math.ceil((float) density / 3) : Math.floor((float) density / 3)); i++) {
-                BaseBulletEntity bulletEntity = getBullet(world, user);
-                bulletEntity.setItem(stack);
-
-                float angle = (spread * j) - spread;
-                Vec3d bullet = new Vec3d(0, 0, 1);
-
-                bullet = bullet.rotateY((angle + 180) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateX(pitch * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
-
-                bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), s, divergence);
-                world.spawnEntity(bulletEntity);
+        event.commit(pattern, density, user);
+        ModMetrics.PLAYER_VOLLEYS.inc();
+    }
 
-                s = s - n;
-            }
-        }
+    /**
+     * Shows the volley on the client before the server fires it. Only does something if the server
+     * simulates its bullets in a {@link DanmakuField}, since bullet entities can't be predicted.
+     */
+    default void predictPattern(PlayerEntity user, ItemStack stack, BulletPattern pattern, int density) {
+        DanmakuPredictor.predict(user, BulletArchetype.fromStack(stack), pattern, user.getPitch(), user.getYaw(), density);
     }
 
     @NotNull
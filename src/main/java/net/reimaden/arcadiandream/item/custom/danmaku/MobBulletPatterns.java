@@ -6,157 +6,76 @@
 package net.reimaden.arcadiandream.item.custom.danmaku;
 
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.item.ItemStack;
-import net.minecraft.util.math.MathHelper;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.reimaden.arcadiandream.danmaku.BulletArchetype;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
 import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.jfr.DanmakuVolleyEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
 import org.jetbrains.annotations.NotNull;
 
 public interface MobBulletPatterns {
 
     default void createRay(World world, LivingEntity user, LivingEntity target, int density, float speed, float divergence, float power, int duration, int color) {
-        float pitch = user.getPitch();
-        float yaw = user.getHeadYaw();
-        float targetHitbox = (target.getHeight() / 2) * 5;
-        float n = speed / density;
-
-        ItemStack stack = getBullet(world, user).getStack();
-        BaseShotItem item = (BaseShotItem) stack.getItem();
-        item.setPower(stack, power);
-        item.setDuration(stack, duration);
-        item.setColor(stack, color);
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            bulletEntity.setVelocity(user, pitch + targetHitbox, yaw, 0.0f, speed, divergence);
-            world.spawnEntity(bulletEntity);
-
-            speed = speed - n;
-        }
+        createPattern(world, user, target, BulletPattern.RAY, density, speed, divergence, power, duration, color);
     }
 
     default void createSpread(World world, LivingEntity user, LivingEntity target, int density, float speed, float divergence, float power, int duration, int color) {
-        float pitch = user.getPitch();
-        float yaw = user.getHeadYaw();
-        float targetHitbox = (target.getHeight() / 2) * 5;
-
-        ItemStack stack = getBullet(world, user).getStack();
-        BaseShotItem item = (BaseShotItem) stack.getItem();
-        item.setPower(stack, power);
-        item.setDuration(stack, duration);
-        item.setColor(stack, color);
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            bulletEntity.setVelocity(user, pitch + targetHitbox, yaw, 0.0f, speed, divergence + density - 1);
-            world.spawnEntity(bulletEntity);
-        }
+        createPattern(world, user, target, BulletPattern.SPREAD, density, speed, divergence, power, duration, color);
     }
 
     default void createRing(World world, LivingEntity user, LivingEntity target, int density, float speed, float divergence, float power, int duration, int color) {
-        float pitch = user.getPitch();
-        float yaw = user.getHeadYaw();
-        float targetHitbox = (target.getHeight() / 2) * 5;
-
-        ItemStack stack = getBullet(world, user).getStack();
-        BaseShotItem item = (BaseShotItem) stack.getItem();
-        item.setPower(stack, power);
-        item.setDuration(stack, duration);
-        item.setColor(stack, color);
-
-        for (int i = 0; i < density; i++) {
-            BaseBulletEntity bulletEntity = getBullet(world, user);
-            bulletEntity.setItem(stack);
-
-            float angle = (i * (360f / density)) + 180;
-            Vec3d bullet = new Vec3d(0, 0, 1);
-
-            bullet = bullet.rotateY(angle * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateX((pitch + targetHitbox) * MathHelper.RADIANS_PER_DEGREE);
-            bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
-
-            bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), speed, divergence);
-            world.spawnEntity(bulletEntity);
-        }
+        createPattern(world, user, target, BulletPattern.RING, density, speed, divergence, power, duration, color);
     }
 
     default void createDouble(World world, LivingEntity user, LivingEntity target, int density, float speed, float divergence, float power, int duration, int color) {
-        float pitch = user.getPitch();
-        float yaw = user.getHeadYaw();
-        final float spread = 22.5f;
-        final int rays = Math.min(density, 2);
-        float targetHitbox = (target.getHeight() / 2) * 5;
-        float n = speed / density;
-
-        ItemStack stack = getBullet(world, user).getStack();
-        BaseShotItem item = (BaseShotItem) stack.getItem();
-        item.setPower(stack, power);
-        item.setDuration(stack, duration);
-        item.setColor(stack, color);
-
-        for (int j = 0; j < rays; j++) {
-            float s = speed;
-
-            for (int i = 0; i < (density <= 2 ? Math.ceil((float) density / 2) : Math.floor((float) density / 2)); i++) {
-                BaseBulletEntity bulletEntity = getBullet(world, user);
-                bulletEntity.setItem(stack);
-
-                float angle = (spread * j) - spread / 2;
-                Vec3d bullet = new Vec3d(0, 0, 1);
-
-                bullet = bullet.rotateY((angle + 180) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateX((pitch + targetHitbox) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
-
-                bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), s, divergence);
-                world.spawnEntity(bulletEntity);
-
-                s = s - n;
-            }
-        }
+        createPattern(world, user, target, BulletPattern.DOUBLE, density, speed, divergence, power, duration, color);
     }
 
     default void createTriple(World world, LivingEntity user, LivingEntity target, int density, float speed, float divergence, float power, int duration, int color) {
+        createPattern(world, user, target, BulletPattern.TRIPLE, density, speed, divergence, power, duration, color);
+    }
+
+    private void createPattern(World world, LivingEntity user, LivingEntity target, Identifier id, int density, float speed, float divergence, float power, int duration, int color) {
+        BulletPattern pattern = BulletPatternManager.get(world).require(id);
         float pitch = user.getPitch();
         float yaw = user.getHeadYaw();
-        final float spread = 15f;
-        final int rays = Math.min(density, 3);
         float targetHitbox = (target.getHeight() / 2) * 5;
-        float n = speed / density;
 
-        ItemStack stack = getBullet(world, user).getStack();
-        BaseShotItem item = (BaseShotItem) stack.getItem();
-        item.setPower(stack, power);
-        item.setDuration(stack, duration);
-        item.setColor(stack, color);
+        // Stay within the limits a crafted shot of this type would have
+        BaseShotItem item = (BaseShotItem) getBulletType().getShotItem();
+        BulletArchetype archetype = BulletArchetype.of(getBulletType(), Math.min(power, item.getMaxPower()), speed,
+                Math.min(duration, item.getMaxDuration()), 0.0f, divergence, color);
 
-        for (int j = 0; j < rays; j++) {
-            float s = speed;
+        DanmakuVolleyEvent event = new DanmakuVolleyEvent();
+        event.begin();
 
-            for (int i = 0; i < (density <= 3 ? Math.ceil((float) density / 3) : Math.floor((float) density / 3)); i++) {
+        if (DanmakuField.isEnabled(world)) {
+            DanmakuField.get((ServerWorld) world).fire(archetype, user, pattern, pitch + targetHitbox, yaw, density);
+        } else {
+            Vec3d ownerVelocity = pattern.getInheritedVelocity(user);
+            pattern.forEachShot(pitch + targetHitbox, yaw, density, speed, divergence, (x, y, z, s, d) -> {
                 BaseBulletEntity bulletEntity = getBullet(world, user);
-                bulletEntity.setItem(stack);
+                bulletEntity.setArchetype(archetype);
 
-                float angle = (spread * j) - spread;
-                Vec3d bullet = new Vec3d(0, 0, 1);
-
-                bullet = bullet.rotateY((angle + 180) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateX((pitch + targetHitbox) * MathHelper.RADIANS_PER_DEGREE);
-                bullet = bullet.rotateY((-yaw + 180) * MathHelper.RADIANS_PER_DEGREE);
-
-                bulletEntity.setVelocity(bullet.getX(), bullet.getY(), bullet.getZ(), s, divergence);
+                bulletEntity.setVelocity(x, y, z, s, d);
+                bulletEntity.setVelocity(bulletEntity.getVelocity().add(ownerVelocity));
                 world.spawnEntity(bulletEntity);
-
-                s = s - n;
-            }
+            });
         }
+
+        event.commit(pattern, density, user);
+        ModMetrics.MOB_VOLLEYS.inc();
     }
 
     @NotNull
     BaseBulletEntity getBullet(World world, LivingEntity user);
+
+    BulletType getBulletType();
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.item.custom.danmaku;
+
+import net.minecraft.item.Item;
+import net.minecraft.registry.tag.TagKey;
+import net.reimaden.arcadiandream.util.ModTags;
+
+public enum ShotModifier {
+    POWER(ModTags.Items.DANMAKU_POWER_MODIFIERS),
+    DENSITY(ModTags.Items.DANMAKU_DENSITY_MODIFIERS),
+    SPEED(ModTags.Items.DANMAKU_SPEED_MODIFIERS),
+    DURATION(ModTags.Items.DANMAKU_DURATION_MODIFIERS),
+    GRAVITY(ModTags.Items.DANMAKU_GRAVITY_MODIFIERS),
+    DIVERGENCE(ModTags.Items.DANMAKU_DIVERGENCE_MODIFIERS);
+
+    private final TagKey<Item> tag;
+
+    ShotModifier(TagKey<Item> tag) {
+        this.tag = tag;
+    }
+
+    public TagKey<Item> getTag() {
+        return tag;
+    }
+
+    // Gravity and divergence change how a shot flies, they don't make it any stronger
+    public boolean costsCooldown() {
+        return this != GRAVITY && this != DIVERGENCE;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.item.custom.danmaku;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.item.DyeItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.Identifier;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+import net.reimaden.arcadiandream.item.ModItems;
+import net.reimaden.arcadiandream.util.ColorMap;
+import net.reimaden.arcadiandream.util.ModTags;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Works out what the Danmaku Crafting Table makes out of its slots.
+ * <p>
+ * Which modifier every item is gets looked up in the tags once, whenever they're loaded.
+ * The table also works its result out again every time one of its slots changes, even when
+ * shift-clicking, so the last few results are remembered by the slots they came from.
+ * <p>
+ * Both the client and the integrated server use this, so everything that touches the
+ * caches is synchronized.
+ */
+public final class ShotModifierEngine {
+
+    public static final int REPAIR_AMOUNT = 50;
+    private static final int CACHE_SIZE = 64;
+
+    private static final Map<Item, Identifier> PATTERNS = Map.of(
+            ModItems.SPREAD_PATTERN, BulletPattern.SPREAD,
+            ModItems.RAY_PATTERN, BulletPattern.RAY,
+            ModItems.RING_PATTERN, BulletPattern.RING,
+            ModItems.CONE_PATTERN, BulletPattern.CONE,
+            ModItems.DOUBLE_PATTERN, BulletPattern.DOUBLE,
+            ModItems.TRIPLE_PATTERN, BulletPattern.TRIPLE
+    );
+    private static final Map<Item, Item> SHOTS = new Reference2ObjectOpenHashMap<>();
+
+    static {
+        // Every core has the shot at the same index
+        for (int i = 0; i < ModTags.BULLET_CORES.size(); i++) {
+            SHOTS.put(ModTags.BULLET_CORES.get(i), ModTags.SHOTS.get(i));
+        }
+    }
+
+    @Nullable
+    private static Reference2ObjectMap<Item, ShotModifier> modifiers;
+    private static final Map<Key, Result> RESULTS = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private ShotModifierEngine() {
+    }
+
+    /**
+     * @return a fresh shot of the core's bullet type, or an empty stack if it isn't a core
+     */
+    public static ItemStack craft(ItemStack core) {
+        Item shot = SHOTS.get(core.getItem());
+        if (shot == null) {
+            return ItemStack.EMPTY;
+        }
+
+        ItemStack stack = new ItemStack(shot);
+        stack.getOrCreateNbt();
+        return stack;
+    }
+
+    /**
+     * Applies the modifier, repair items, pattern and dye to a copy of the shot.
+     */
+    public static synchronized Result modify(ItemStack shot, ItemStack modifier, ItemStack repair, ItemStack pattern, ItemStack color) {
+        Key key = new Key(shot.getItem(), shot.getNbt(), modifier.getItem(), modifier.getCount(), repair.getCount(),
+                pattern.getItem(), color.getItem());
+
+        Result result = RESULTS.get(key);
+        if (result == null) {
+            result = compute(shot.copy(), modifier, repair.getCount(), pattern, color);
+            // The shot's NBT can still change, so the key gets its own copy
+            RESULTS.put(key.copy(), result);
+        }
+
+        return result.copy();
+    }
+
+    private static Result compute(ItemStack stack, ItemStack modifierStack, int repairCount, ItemStack pattern, ItemStack color) {
+        BaseShotItem shot = (BaseShotItem) stack.getItem();
+
+        int modifierSteps = 0;
+        ShotModifier modifier = getModifier(modifierStack.getItem());
+        if (modifier != null && !modifierStack.isEmpty()) {
+            ShotStats stats = ShotStats.read(shot, stack);
+            modifierSteps = stats.apply(modifier, modifierStack.getCount());
+            if (modifierSteps > 0) {
+                stats.write(shot, stack, modifier);
+            }
+        }
+
+        int repairSteps = repair(stack, repairCount);
+
+        if (!pattern.isEmpty()) {
+            shot.setPattern(stack, PATTERNS.getOrDefault(pattern.getItem(), BulletPattern.SPREAD));
+        }
+
+        if (color.getItem() instanceof DyeItem dye) {
+            shot.setColor(stack, ColorMap.getColorInt(dye.getColor().getName()));
+        }
+
+        return new Result(stack, modifierSteps, repairSteps);
+    }
+
+    // Every item repairs the same amount, and the ones past full durability aren't used up
+    private static int repair(ItemStack stack, int count) {
+        int damage = stack.getDamage();
+        if (count <= 0 || damage <= 0) {
+            return 0;
+        }
+
+        int steps = Math.min(count, (damage + REPAIR_AMOUNT - 1) / REPAIR_AMOUNT);
+        stack.setDamage(damage - steps * REPAIR_AMOUNT);
+        return steps;
+    }
+
+    @Nullable
+    private static ShotModifier getModifier(Item item) {
+        if (modifiers == null) {
+            modifiers = buildModifiers();
+        }
+        return modifiers.get(item);
+    }
+
+    private static Reference2ObjectMap<Item, ShotModifier> buildModifiers() {
+        Reference2ObjectMap<Item, ShotModifier> table = new Reference2ObjectOpenHashMap<>();
+        // An item in several tags is whichever modifier comes first
+        for (ShotModifier modifier : ShotModifier.values()) {
+            for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(modifier.getTag())) {
+                table.putIfAbsent(entry.value(), modifier);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Looks the modifiers up again, for when the tags were reloaded.
+     */
+    public static synchronized void reload() {
+        modifiers = buildModifiers();
+        RESULTS.clear();
+    }
+
+    public static synchronized void invalidate() {
+        modifiers = null;
+        RESULTS.clear();
+    }
+
+    public static void registerClient() {
+        // The server we're joining might have different tags than the last one
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> invalidate());
+    }
+
+    public record Result(ItemStack stack, int modifiers, int repairs) {
+
+        private Result copy() {
+            return new Result(stack.copy(), modifiers, repairs);
+        }
+    }
+
+    private record Key(Item shot, @Nullable NbtCompound nbt, Item modifier, int modifierCount, int repairCount,
+                       Item pattern, Item color) {
+
+        private Key copy() {
+            return new Key(shot, nbt == null ? null : nbt.copy(), modifier, modifierCount, repairCount, pattern, color);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.item.custom.danmaku;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * The stats of a shot while it's being modified, so the Danmaku Crafting Table doesn't have to
+ * go through its NBT for every single item in the modifier slot.
+ * <p>
+ * The math is the same as the one the table always used, down to the float rounding, it just
+ * stops as soon as a stat is maxed or nothing changes anymore.
+ */
+public final class ShotStats {
+
+    public static final float PERCENTAGE = 0.05f;
+    public static final float REDUCTION_PERCENTAGE = 0.02f;
+    public static final float GRAVITY_STEP = 0.02f;
+    public static final float DIVERGENCE_STEP = 5.0f;
+
+    private static final float MIN_POWER = 0.1f;
+    private static final float MIN_SPEED = 0.05f;
+    private static final int MIN_DURATION = 20;
+    // Float steps don't always divide the distance to the max evenly
+    private static final float STEP_EPSILON = 1.0E-4f;
+
+    public float power;
+    public float speed;
+    public int duration;
+    public int cooldown;
+    public float gravity;
+    public float divergence;
+    public int density;
+
+    private final float maxPower;
+    private final float maxSpeed;
+    private final int maxDuration;
+    private final int maxCooldown;
+    private final float maxGravity;
+    private final float maxDivergence;
+    private final int maxDensity;
+
+    public ShotStats(float maxPower, float maxSpeed, int maxDuration, int maxCooldown, float maxGravity,
+                     float maxDivergence, int maxDensity) {
+        this.maxPower = maxPower;
+        this.maxSpeed = maxSpeed;
+        this.maxDuration = maxDuration;
+        this.maxCooldown = maxCooldown;
+        this.maxGravity = maxGravity;
+        this.maxDivergence = maxDivergence;
+        this.maxDensity = maxDensity;
+    }
+
+    public static ShotStats read(BaseShotItem shot, ItemStack stack) {
+        ShotStats stats = new ShotStats(shot.getMaxPower(), shot.getMaxSpeed(), shot.getMaxDuration(), shot.getMaxCooldown(),
+                shot.getMaxGravity(), shot.getMaxDivergence(), shot.getMaxDensity());
+        stats.power = shot.getPower(stack);
+        stats.speed = shot.getSpeed(stack);
+        stats.duration = shot.getDuration(stack);
+        stats.cooldown = shot.getCooldown(stack);
+        stats.gravity = shot.getGravity(stack);
+        stats.divergence = shot.getDivergence(stack);
+        stats.density = shot.getDensity(stack);
+        return stats;
+    }
+
+    /**
+     * Writes back the stats the modifier could have changed.
+     */
+    public void write(BaseShotItem shot, ItemStack stack, ShotModifier modifier) {
+        switch (modifier) {
+            case GRAVITY -> shot.setGravity(stack, gravity);
+            case DIVERGENCE -> shot.setDivergence(stack, divergence);
+            default -> {
+                shot.setPower(stack, power);
+                shot.setSpeed(stack, speed);
+                shot.setDuration(stack, duration);
+                shot.setCooldown(stack, cooldown);
+                if (modifier == ShotModifier.DENSITY) {
+                    shot.setDensity(stack, density);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies up to {@code count} items of the modifier.
+     *
+     * @return how many of them actually did something
+     */
+    public int apply(ShotModifier modifier, int count) {
+        int steps = switch (modifier) {
+            case GRAVITY -> applyGravity(count);
+            case DIVERGENCE -> applyDivergence(count);
+            default -> compound(modifier, count);
+        };
+
+        // Every step of the stat modifiers costs a tick of cooldown, and the setter caps it
+        if (steps > 0 && modifier.costsCooldown()) {
+            cooldown = Math.min(cooldown + steps, maxCooldown);
+        }
+        return steps;
+    }
+
+    private int compound(ShotModifier modifier, int count) {
+        for (int i = 0; i < count; i++) {
+            float lastPower = power;
+            float lastSpeed = speed;
+            int lastDuration = duration;
+            int lastDensity = density;
+
+            switch (modifier) {
+                case POWER -> {
+                    if (power >= maxPower) {
+                        return i;
+                    }
+                    power = boost(power, maxPower);
+                    speed = reduceSpeed(speed);
+                    duration = reduceDuration(duration);
+                }
+                case DENSITY -> {
+                    if (density >= maxDensity) {
+                        return i;
+                    }
+                    density = Math.min(density + 1, maxDensity);
+                    power = reducePower(power);
+                    speed = reduceSpeed(speed);
+                    duration = reduceDuration(duration);
+                }
+                case SPEED -> {
+                    if (speed >= maxSpeed) {
+                        return i;
+                    }
+                    speed = boost(speed, maxSpeed);
+                    power = reducePower(power);
+                    duration = reduceDuration(duration);
+                }
+                case DURATION -> {
+                    if (duration >= maxDuration) {
+                        return i;
+                    }
+                    double current = duration;
+                    double result = Math.ceil(current * (1 + PERCENTAGE * (1 - (current / (maxDuration * 2)))));
+                    duration = Math.min((int) result, maxDuration);
+                    power = reducePower(power);
+                    speed = reduceSpeed(speed);
+                }
+                default -> throw new IllegalArgumentException("Not a compounding modifier: " + modifier);
+            }
+
+            // Every step only depends on the stats, so once they stop changing, so does every step after
+            if (power == lastPower && speed == lastSpeed && duration == lastDuration && density == lastDensity) {
+                return count;
+            }
+        }
+
+        return count;
+    }
+
+    // The boosted stat grows towards twice its max, but gets capped at the max
+    private static float boost(float value, float max) {
+        double current = value;
+        double result = current * (1 + PERCENTAGE * (1 - (current / (max * 2.0))));
+        return Math.min((float) result, max);
+    }
+
+    private float reducePower(float value) {
+        double result = value * (1 - REDUCTION_PERCENTAGE * (value / (double) maxPower));
+        return Math.min(Math.max((float) result, MIN_POWER), maxPower);
+    }
+
+    private float reduceSpeed(float value) {
+        double current = value;
+        double result = current * (1 - REDUCTION_PERCENTAGE * (current / maxSpeed));
+        return Math.min(Math.max((float) result, MIN_SPEED), maxSpeed);
+    }
+
+    private int reduceDuration(int value) {
+        double result = value * (1 - REDUCTION_PERCENTAGE * (value / (double) maxDuration));
+        return Math.min(Math.max((int) result, MIN_DURATION), maxDuration);
+    }
+
+    // Gravity and divergence go up in fixed steps, so there's nothing to iterate
+    private int applyGravity(int count) {
+        int steps = linearSteps(gravity, maxGravity, GRAVITY_STEP, count);
+        gravity = Math.min(gravity + steps * GRAVITY_STEP, maxGravity);
+        return steps;
+    }
+
+    private int applyDivergence(int count) {
+        int steps = linearSteps(divergence, maxDivergence, DIVERGENCE_STEP, count);
+        divergence = Math.min(divergence + steps * DIVERGENCE_STEP, maxDivergence);
+        return steps;
+    }
+
+    private static int linearSteps(float value, float max, float step, int count) {
+        if (value >= max) {
+            return 0;
+        }
+        return MathHelper.clamp(MathHelper.ceil((max - value) / step - STEP_EPSILON), 0, count);
+    }
+}
@@ -6,20 +6,20 @@
 package net.reimaden.arcadiandream.item.custom.misc;
 
 import net.minecraft.client.item.TooltipContext;
-import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvents;
 import net.minecraft.stat.Stats;
 import net.minecraft.text.Text;
 import net.minecraft.util.Hand;
 import net.minecraft.util.TypedActionResult;
-import net.minecraft.util.math.Box;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.ArcadianDream;
-import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
 import net.reimaden.arcadiandream.item.ModItems;
 import net.reimaden.arcadiandream.sound.ModSounds;
 import org.jetbrains.annotations.Nullable;
@@ -41,30 +41,17 @@ public class BombItem extends Item {
         int stars = 0;
 
         if (!world.isClient) {
-            for (BaseBulletEntity bulletEntity : world.getNonSpectatingEntities(BaseBulletEntity.class,
-                    new Box(user.getX(), user.getY(), user.getZ(), user.getX(), user.getY(), user.getZ()).expand(24.0, 24.0, 24.0))) {
-
-                if (bulletEntity.getOwner() != user) {
-
-                    // Convert bullets into Star Items
-                    ItemEntity itemEntity = new ItemEntity(world, user.getX(), user.getZ(), user.getY(), new ItemStack(ModItems.STAR_ITEM));
-                    itemEntity.setPos(bulletEntity.getX(), bulletEntity.getY(), bulletEntity.getZ());
-                    world.spawnEntity(itemEntity);
-                    bulletEntity.kill();
-                    bulletEntity.cancelParticle((ServerWorld) world);
-                    cancelled++;
-
-                    // Get the ItemStack of the Star Items
-                    // and give them to the player
-                    ItemStack item = itemEntity.getStack();
-                    if (Random.create().nextBoolean()) { // 50% of the time
-                        user.sendPickup(itemEntity, 1);
-                        user.getInventory().offerOrDrop(item);
-                        stars++;
-                    }
-                    itemEntity.discard();
+            cancelled = DanmakuField.get((ServerWorld) world).cancelWithin(user.getPos(), 24.0, user);
+
+            // Convert bullets into Star Items, half of them make it to the player
+            Random random = user.getRandom();
+            for (int i = 0; i < cancelled; i++) {
+                if (random.nextBoolean()) {
+                    stars++;
                 }
             }
+            giveStars(world, user, stars);
+
             if (cancelled > 0) {
                 user.sendMessage(Text.translatable("item." + ArcadianDream.MOD_ID + ".bomb_item.cancel", cancelled, stars), true);
                 world.playSound(null, user.getX(), user.getY(), user.getZ(), ModSounds.ITEM_BOMB_ITEM_USE, user.getSoundCategory(), 1f, 1f);
@@ -84,6 +71,19 @@ public class BombItem extends Item {
         return TypedActionResult.pass(itemStack);
     }
 
+    private static void giveStars(World world, PlayerEntity user, int stars) {
+        if (stars <= 0) {
+            return;
+        }
+
+        int maxCount = ModItems.STAR_ITEM.getMaxCount();
+        for (int given = 0; given < stars; given += maxCount) {
+            user.getInventory().offerOrDrop(new ItemStack(ModItems.STAR_ITEM, Math.min(maxCount, stars - given)));
+        }
+        world.playSound(null, user.getX(), user.getY(), user.getZ(), SoundEvents.ENTITY_ITEM_PICKUP, SoundCategory.PLAYERS,
+                0.2f, (user.getRandom().nextFloat() - user.getRandom().nextFloat()) * 1.4f + 2.0f);
+    }
+
     @Override
     public void appendTooltip(ItemStack stack, @Nullable World world, List<Text> tooltip, TooltipContext context) {
         tooltip.add(Text.translatable("item." + ArcadianDream.MOD_ID + ".bomb_item.tooltip"));
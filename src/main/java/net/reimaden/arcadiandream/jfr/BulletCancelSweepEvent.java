@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("arcadiandream.BulletCancelSweep")
+@Label("Bullet Cancel Sweep")
+@Category({"Arcadian Dream", "Danmaku"})
+@Description("Every bullet around a point being cancelled, by a bomb or a death")
+@StackTrace(false)
+public class BulletCancelSweepEvent extends Event {
+
+    @Label("Radius")
+    public double radius;
+
+    @Label("Count")
+    @Description("How many bullets were cancelled")
+    public int count;
+
+    public void commit(double radius, int count) {
+        if (shouldCommit()) {
+            this.radius = radius;
+            this.count = count;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.Registries;
+
+@Name("arcadiandream.BulletHit")
+@Label("Bullet Hit")
+@Category({"Arcadian Dream", "Danmaku"})
+@Description("A bullet damaging an entity")
+@StackTrace(false)
+public class BulletHitEvent extends Event {
+
+    @Label("Target Type")
+    public String targetType;
+
+    @Label("Damage")
+    public float damage;
+
+    @Label("Bullet Age")
+    @Description("How many ticks the bullet had been flying for")
+    public int bulletAge;
+
+    public void commit(Entity target, float damage, int bulletAge) {
+        if (shouldCommit()) {
+            this.targetType = Registries.ENTITY_TYPE.getId(target.getType()).toString();
+            this.damage = damage;
+            this.bulletAge = bulletAge;
+            commit();
+        }
+    }
+}
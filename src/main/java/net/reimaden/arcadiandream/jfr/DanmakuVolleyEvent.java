@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.Registries;
+import net.reimaden.arcadiandream.danmaku.BulletPattern;
+
+@Name("arcadiandream.DanmakuVolley")
+@Label("Danmaku Volley")
+@Category({"Arcadian Dream", "Danmaku"})
+@Description("A pattern of bullets being fired, from the first bullet to the last")
+@StackTrace(false)
+public class DanmakuVolleyEvent extends Event {
+
+    @Label("Pattern")
+    public String pattern;
+
+    @Label("Density")
+    public int density;
+
+    @Label("Owner Type")
+    public String ownerType;
+
+    public void commit(BulletPattern pattern, int density, Entity owner) {
+        if (shouldCommit()) {
+            this.pattern = pattern.getId().toString();
+            this.density = density;
+            this.ownerType = Registries.ENTITY_TYPE.getId(owner.getType()).toString();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.registry.Registries;
+
+@Name("arcadiandream.InventorySync")
+@Label("Inventory Sync")
+@Category({"Arcadian Dream", "Networking"})
+@Description("The changed slots of a block entity being written out to the players around it")
+@StackTrace(false)
+public class InventorySyncEvent extends Event {
+
+    @Label("Block Entity Type")
+    public String blockEntityType;
+
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+
+    public void commit(BlockEntity blockEntity, int bytes) {
+        if (shouldCommit()) {
+            this.blockEntityType = String.valueOf(Registries.BLOCK_ENTITY_TYPE.getId(blockEntity.getType()));
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import net.reimaden.arcadiandream.recipe.RitualCraftingRecipe;
+import org.jetbrains.annotations.Nullable;
+
+@Name("arcadiandream.RitualCraft")
+@Label("Ritual Craft")
+@Category({"Arcadian Dream", "Rituals"})
+@Description("A ritual shrine looking for a recipe, and crafting it if there is one")
+@StackTrace(false)
+public class RitualCraftEvent extends Event {
+
+    @Label("Recipe")
+    @Description("Empty if nothing matched")
+    public String recipe;
+
+    @Label("Match Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long matchTime;
+
+    public void commit(@Nullable RitualCraftingRecipe recipe, long matchTime) {
+        if (shouldCommit()) {
+            this.recipe = recipe != null ? recipe.getId().toString() : "";
+            this.matchTime = matchTime;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, split by label values.
+ * <p>
+ * Look the labelled {@link Child} up once and keep it around, adding to it is then just a {@link LongAdder}.
+ */
+public class Counter extends Metric {
+
+    private final Map<List<String>, Child> children = new ConcurrentHashMap<>();
+
+    Counter(String name, String help, String... labelNames) {
+        super(name, help, "counter", labelNames);
+    }
+
+    public Child labels(String... labelValues) {
+        return children.computeIfAbsent(checkLabels(labelValues), key -> new Child());
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        children.forEach((labelValues, child) -> writeSample(out, name, labelValues, child.get()));
+    }
+
+    public static class Child {
+
+        private final LongAdder adder = new LongAdder();
+
+        public void inc() {
+            adder.increment();
+        }
+
+        public void add(long amount) {
+            adder.add(amount);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A value that's sampled every now and then, split by label values.
+ * <p>
+ * Every sample replaces all the values at once, so labels that disappear (like an unloaded world)
+ * don't stick around, and exporters never see half a sample.
+ */
+public class Gauge extends Metric {
+
+    private volatile Map<List<String>, Double> values = Map.of();
+
+    Gauge(String name, String help, String... labelNames) {
+        super(name, help, "gauge", labelNames);
+    }
+
+    public Sample sample() {
+        return new Sample();
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        values.forEach((labelValues, value) -> writeSample(out, name, labelValues, value));
+    }
+
+    public class Sample {
+
+        private final Map<List<String>, Double> values = new HashMap<>();
+
+        public Sample set(double value, String... labelValues) {
+            values.put(checkLabels(labelValues), value);
+            return this;
+        }
+
+        public void publish() {
+            Gauge.this.values = Map.copyOf(values);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations sorted into fixed buckets, in seconds like Prometheus expects.
+ * <p>
+ * Buckets are counted on their own and only added up when exported, so recording is a
+ * binary search and two adders.
+ */
+public class Histogram extends Metric {
+
+    private final long[] boundsNanos;
+    private final double[] boundsSeconds;
+    // One more than there are bounds, for everything slower than the last one
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    Histogram(String name, String help, double... boundsSeconds) {
+        super(name, help, "histogram");
+        this.boundsSeconds = boundsSeconds.clone();
+        this.boundsNanos = new long[boundsSeconds.length];
+        this.buckets = new LongAdder[boundsSeconds.length + 1];
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            boundsNanos[i] = (long) (boundsSeconds[i] * 1.0E9);
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observeNanos(long nanos) {
+        int low = 0;
+        int high = boundsNanos.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (boundsNanos[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        buckets[low].increment();
+        sum.add(nanos / 1.0E9);
+    }
+
+    @Override
+    protected void writeSamples(StringBuilder out) {
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+            String le = i < boundsSeconds.length ? Double.toString(boundsSeconds[i]) : "+Inf";
+            out.append(name).append("_bucket{le=\"").append(le).append("\"} ").append(count).append('\n');
+        }
+        writeSample(out, name + "_sum", List.of(), sum.sum());
+        writeSample(out, name + "_count", List.of(), count);
+    }
+}
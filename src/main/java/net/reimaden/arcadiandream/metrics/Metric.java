@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import java.util.List;
+
+/**
+ * Anything the {@link MetricsRegistry} can write out in the Prometheus text format.
+ */
+public abstract class Metric {
+
+    protected final String name;
+    private final String help;
+    private final String type;
+    protected final String[] labelNames;
+
+    protected Metric(String name, String help, String type, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labelNames = labelNames;
+    }
+
+    void write(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        writeSamples(out);
+    }
+
+    protected abstract void writeSamples(StringBuilder out);
+
+    protected void writeSample(StringBuilder out, String sampleName, List<String> labelValues, double value) {
+        out.append(sampleName);
+        if (!labelValues.isEmpty()) {
+            out.append('{');
+            for (int i = 0; i < labelValues.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labelNames[i]).append("=\"");
+                escape(out, labelValues.get(i));
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    protected List<String> checkLabels(String... labelValues) {
+        if (labelValues.length != labelNames.length) {
+            throw new IllegalArgumentException(name + " takes " + labelNames.length + " labels, not " + labelValues.length);
+        }
+        return List.of(labelValues);
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        // Whole numbers are the common case, and look nicer without the trailing .0
+        if (value == Math.rint(value) && Math.abs(value) < 1.0E15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
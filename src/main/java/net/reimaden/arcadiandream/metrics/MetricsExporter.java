@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.reimaden.arcadiandream.ArcadianDream;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets the metrics out of the game, by rewriting a file every so often, serving them over HTTP, or both.
+ * <p>
+ * Both happen on their own daemon threads, the server thread never waits on a disk or a scraper.
+ * The HTTP listener only binds to the loopback address, put a proper proxy in front of it to
+ * scrape it from anywhere else.
+ */
+public class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    @Nullable
+    private ScheduledExecutorService fileWriter;
+    @Nullable
+    private HttpServer httpServer;
+    @Nullable
+    private ExecutorService httpExecutor;
+
+    public MetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void writeFileEvery(Path file, int intervalSeconds) {
+        fileWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Arcadian Dream Metrics Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fileWriter.scheduleAtFixedRate(() -> writeFile(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void writeFile(Path file) {
+        try {
+            // Written next to it first, so whatever reads the file never sees half of it
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, registry.scrape(), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            ArcadianDream.LOGGER.warn("Couldn't write metrics to {}", file, e);
+        }
+    }
+
+    public void listen(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            ArcadianDream.LOGGER.error("Couldn't serve metrics on port {}", port, e);
+            return;
+        }
+
+        httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Arcadian Dream Metrics Listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.createContext("/metrics", this::handle);
+        httpServer.setExecutor(httpExecutor);
+        httpServer.start();
+        ArcadianDream.LOGGER.info("Serving metrics on http://{}:{}/metrics", InetAddress.getLoopbackAddress().getHostAddress(), port);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public void stop() {
+        if (fileWriter != null) {
+            fileWriter.shutdownNow();
+            fileWriter = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+    }
+}
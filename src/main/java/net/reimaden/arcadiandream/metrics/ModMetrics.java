@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.metrics;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.danmaku.BulletType;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.entity.custom.FairyEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Every metric the mod keeps, for dashboards. See {@link MetricsExporter} for how they get out.
+ * <p>
+ * Counters are always counted, they're cheap enough. Timings and the exporters only run
+ * if metrics are turned on in the config.
+ */
+public class ModMetrics {
+
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+    private static final boolean ENABLED = ArcadianDream.CONFIG.metricsOptions.enabled();
+    private static final long NOT_RECORDING = Long.MIN_VALUE;
+    // Bullets and fairies are counted once a second, going through every entity isn't free
+    private static final int SAMPLE_INTERVAL = 20;
+
+    public static final Gauge BULLETS = REGISTRY.gauge("arcadiandream_bullets",
+            "Live bullets, entities and danmaku field bullets alike", "world", "type");
+    public static final Gauge FAIRIES = REGISTRY.gauge("arcadiandream_fairies",
+            "Loaded fairies", "world");
+
+    private static final Counter VOLLEYS = REGISTRY.counter("arcadiandream_volleys_total",
+            "Bullet patterns fired", "source");
+    public static final Counter.Child PLAYER_VOLLEYS = VOLLEYS.labels("player");
+    public static final Counter.Child MOB_VOLLEYS = VOLLEYS.labels("mob");
+
+    private static final Counter EVICTIONS = REGISTRY.counter("arcadiandream_bullets_evicted_total",
+            "Danmaku field bullets removed to make room for new ones, by the cap that was hit", "cap");
+    public static final Counter.Child WORLD_EVICTIONS = EVICTIONS.labels("world");
+    public static final Counter.Child CHUNK_EVICTIONS = EVICTIONS.labels("chunk");
+    public static final Counter.Child OWNER_EVICTIONS = EVICTIONS.labels("owner");
+
+    public static final Counter.Child BULLETS_CANCELLED = REGISTRY.counter("arcadiandream_bullets_cancelled_total",
+            "Bullets cancelled by bombs and deaths").labels();
+    public static final Counter.Child BULLET_HITS = REGISTRY.counter("arcadiandream_bullet_hits_total",
+            "Bullets that hit an entity").labels();
+    public static final Histogram FAIRY_AI = REGISTRY.histogram("arcadiandream_fairy_ai_seconds",
+            "Time each fairy spent moving and thinking per tick",
+            0.000_005, 0.000_01, 0.000_025, 0.000_05, 0.000_1, 0.000_25, 0.000_5, 0.001, 0.002_5, 0.005);
+    public static final Counter.Child RITUAL_CRAFTS = REGISTRY.counter("arcadiandream_ritual_crafts_total",
+            "Items crafted in ritual shrines").labels();
+    public static final Counter.Child SYNC_BYTES = REGISTRY.counter("arcadiandream_sync_bytes_total",
+            "Bytes of block entity items sent to players").labels();
+
+    @Nullable
+    private static MetricsExporter exporter;
+
+    public static void register() {
+        if (!ENABLED) {
+            return;
+        }
+
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (server.getTicks() % SAMPLE_INTERVAL == 0) {
+                sample(server);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> start());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> stop());
+    }
+
+    /**
+     * @return when the timing started, to pass to {@link #observeSince}
+     */
+    public static long begin() {
+        return ENABLED ? System.nanoTime() : NOT_RECORDING;
+    }
+
+    public static void observeSince(Histogram histogram, long start) {
+        if (start != NOT_RECORDING) {
+            histogram.observeNanos(System.nanoTime() - start);
+        }
+    }
+
+    private static void sample(MinecraftServer server) {
+        Gauge.Sample bullets = BULLETS.sample();
+        Gauge.Sample fairies = FAIRIES.sample();
+        int[] counts = new int[BulletType.values().length];
+
+        for (ServerWorld world : server.getWorlds()) {
+            String worldName = world.getRegistryKey().getValue().toString();
+            int fairyCount = 0;
+
+            DanmakuField.get(world).countByType(counts);
+            for (Entity entity : world.iterateEntities()) {
+                if (entity instanceof BaseBulletEntity bullet) {
+                    counts[bullet.getBulletType().ordinal()]++;
+                } else if (entity instanceof FairyEntity) {
+                    fairyCount++;
+                }
+            }
+
+            for (BulletType type : BulletType.values()) {
+                bullets.set(counts[type.ordinal()], worldName, type.name().toLowerCase(Locale.ROOT));
+                counts[type.ordinal()] = 0;
+            }
+            fairies.set(fairyCount, worldName);
+        }
+
+        bullets.publish();
+        fairies.publish();
+    }
+
+    private static void start() {
+        exporter = new MetricsExporter(REGISTRY);
+
+        String file = ArcadianDream.CONFIG.metricsOptions.file();
+        if (!file.isBlank()) {
+            exporter.writeFileEvery(FabricLoader.getInstance().getGameDir().resolve(file), ArcadianDream.CONFIG.metricsOptions.interval());
+        }
+
+        int port = ArcadianDream.CONFIG.metricsOptions.port();
+        if (port > 0) {
+            exporter.listen(port);
+        }
+    }
+
+    private static void stop() {
+        if (exporter != null) {
+            exporter.stop();
+            exporter = null;
+        }
+    }
+}
@@ -22,10 +22,9 @@ import net.minecraft.server.world.ServerWorld;
 import net.minecraft.stat.Stats;
 import net.minecraft.text.Text;
 import net.minecraft.util.Pair;
-import net.minecraft.util.math.Box;
 import net.minecraft.world.World;
 import net.reimaden.arcadiandream.ArcadianDream;
-import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
 import net.reimaden.arcadiandream.item.ModItems;
 import net.reimaden.arcadiandream.sound.ModSounds;
 import net.reimaden.arcadiandream.util.IEntityDataSaver;
@@ -64,14 +63,7 @@ public abstract class LivingEntityMixin extends Entity {
                 cir.setReturnValue(true);
 
                 // Clear bullets
-                for (BaseBulletEntity bulletEntity : world.getNonSpectatingEntities(BaseBulletEntity.class,
-                        new Box(entity.getX(), entity.getY(), entity.getZ(), entity.getX(), entity.getY(), entity.getZ()).expand(24.0, 24.0, 24.0))) {
-
-                    if (bulletEntity.getOwner() != entity) {
-                        bulletEntity.kill();
-                        bulletEntity.cancelParticle((ServerWorld) world);
-                    }
-                }
+                DanmakuField.get((ServerWorld) world).cancelWithin(entity.getPos(), 24.0, entity);
 
                 // Remove item
                 if (TrinketsApi.getTrinketComponent(entity).isPresent()) {
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.mixin;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
+import net.reimaden.arcadiandream.danmaku.IDanmakuFieldHolder;
+import net.reimaden.arcadiandream.entity.ai.DanmakuGoalScheduler;
+import net.reimaden.arcadiandream.entity.ai.IDanmakuGoalSchedulerHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin implements IDanmakuFieldHolder, IDanmakuGoalSchedulerHolder {
+
+    private DanmakuField danmakuField;
+    private DanmakuGoalScheduler danmakuGoalScheduler;
+
+    @Override
+    public DanmakuField getDanmakuField() {
+        if (this.danmakuField == null) {
+            this.danmakuField = new DanmakuField((ServerWorld) (Object) this);
+        }
+
+        return danmakuField;
+    }
+
+    @Override
+    public DanmakuGoalScheduler getDanmakuGoalScheduler() {
+        if (this.danmakuGoalScheduler == null) {
+            this.danmakuGoalScheduler = new DanmakuGoalScheduler((ServerWorld) (Object) this);
+        }
+
+        return danmakuGoalScheduler;
+    }
+
+    // Bullets predict which blocks they'll hit, so they need to know when those change
+    @Inject(method = "onBlockChanged", at = @At("HEAD"))
+    private void arcadiandream$invalidateBulletImpacts(BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo ci) {
+        if (this.danmakuField != null) {
+            this.danmakuField.onBlockChanged(pos);
+        }
+    }
+}
@@ -5,12 +5,22 @@
 
 package net.reimaden.arcadiandream.mixin;
 
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.hit.HitResult;
+import net.reimaden.arcadiandream.danmaku.DanmakuField;
 import net.reimaden.arcadiandream.entity.custom.BaseBulletEntity;
+import net.reimaden.arcadiandream.util.TickProfiler;
 import net.minecraft.entity.projectile.thrown.ThrownEntity;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Constant;
 import org.spongepowered.asm.mixin.injection.ModifyConstant;
 
+import java.util.function.Predicate;
+
 @Mixin(ThrownEntity.class)
 public abstract class ThrownEntityMixin {
 
@@ -33,4 +43,16 @@ public abstract class ThrownEntityMixin {
         }
         return value;
     }
+
+    // Look up the entities in the way through the shared grid instead of querying the world per bullet
+    @WrapOperation(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/projectile/ProjectileUtil;getCollision(Lnet/minecraft/entity/Entity;Ljava/util/function/Predicate;)Lnet/minecraft/util/hit/HitResult;"))
+    private HitResult arcadiandream$danmakuBroadphase(Entity entity, Predicate<Entity> predicate, Operation<HitResult> original) {
+        if (bullet instanceof BaseBulletEntity && bullet.world instanceof ServerWorld serverWorld) {
+            long start = TickProfiler.begin();
+            HitResult hitResult = DanmakuField.get(serverWorld).getBroadphase().getCollision(bullet, predicate);
+            TickProfiler.end(TickProfiler.Section.BULLET_COLLISION, start);
+            return hitResult;
+        }
+        return original.call(entity, predicate);
+    }
 }
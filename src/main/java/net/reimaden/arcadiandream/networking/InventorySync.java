@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.collection.DefaultedList;
+import net.minecraft.util.math.ChunkPos;
+import net.reimaden.arcadiandream.jfr.InventorySyncEvent;
+import net.reimaden.arcadiandream.metrics.ModMetrics;
+import net.reimaden.arcadiandream.networking.packet.ItemStackSyncS2CPacket;
+import net.reimaden.arcadiandream.util.TickProfiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the items of block entities to the players around them, at most once per tick.
+ * <p>
+ * Block entities can be marked dirty as often as they like during a tick. Once the tick is over,
+ * each of them is compared to what was last sent, and only the slots that changed go out,
+ * in a single packet per chunk. A ritual emptying 16 onbashiras is one packet instead of 17.
+ */
+public final class InventorySync {
+
+    private static final Map<ServerWorld, Long2ObjectMap<List<Tracker>>> PENDING = new HashMap<>();
+
+    private InventorySync() {
+    }
+
+    public static void markDirty(Tracker tracker) {
+        if (tracker.queued || !(tracker.blockEntity.getWorld() instanceof ServerWorld world)) {
+            return;
+        }
+
+        long start = TickProfiler.begin();
+        tracker.queued = true;
+        PENDING.computeIfAbsent(world, key -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.toLong(tracker.blockEntity.getPos()), key -> new ArrayList<>())
+                .add(tracker);
+        TickProfiler.end(TickProfiler.Section.INVENTORY_SYNC, start);
+    }
+
+    /**
+     * Called at the end of every server tick.
+     */
+    public static void flush(MinecraftServer server) {
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        long start = TickProfiler.begin();
+        List<Tracker> changed = new ArrayList<>();
+        IntList masks = new IntArrayList();
+
+        for (Map.Entry<ServerWorld, Long2ObjectMap<List<Tracker>>> world : PENDING.entrySet()) {
+            for (Long2ObjectMap.Entry<List<Tracker>> chunk : world.getValue().long2ObjectEntrySet()) {
+                changed.clear();
+                masks.clear();
+
+                for (Tracker tracker : chunk.getValue()) {
+                    tracker.queued = false;
+                    int mask = tracker.collectChanges();
+                    if (mask != 0 && !tracker.blockEntity.isRemoved()) {
+                        changed.add(tracker);
+                        masks.add(mask);
+                    }
+                }
+                if (changed.isEmpty()) {
+                    continue;
+                }
+
+                PacketByteBuf data = PacketByteBufs.create();
+                data.writeVarInt(changed.size());
+                for (int i = 0; i < changed.size(); i++) {
+                    Tracker tracker = changed.get(i);
+                    InventorySyncEvent event = new InventorySyncEvent();
+                    event.begin();
+                    int offset = data.writerIndex();
+                    ItemStackSyncS2CPacket.write(data, tracker.blockEntity.getPos(), masks.getInt(i), tracker.items);
+                    event.commit(tracker.blockEntity, data.writerIndex() - offset);
+                }
+
+                for (ServerPlayerEntity player : PlayerLookup.tracking(world.getKey(), new ChunkPos(chunk.getLongKey()))) {
+                    ServerPlayNetworking.send(player, ModMessages.ITEM_SYNC, data);
+                    ModMetrics.SYNC_BYTES.add(data.readableBytes());
+                }
+            }
+        }
+
+        PENDING.clear();
+        TickProfiler.end(TickProfiler.Section.INVENTORY_SYNC, start);
+    }
+
+    /**
+     * Called when the server stops, so whatever was still queued doesn't keep its worlds around.
+     */
+    public static void clear() {
+        PENDING.values().forEach(chunks -> chunks.values().forEach(trackers -> trackers.forEach(tracker -> tracker.queued = false)));
+        PENDING.clear();
+    }
+
+    /**
+     * Remembers what the players around a block entity last got to see of its items.
+     */
+    public static final class Tracker {
+
+        private final BlockEntity blockEntity;
+        private final DefaultedList<ItemStack> items;
+        private final ItemStack[] synced;
+        private boolean queued;
+
+        public Tracker(BlockEntity blockEntity, DefaultedList<ItemStack> items) {
+            this.blockEntity = blockEntity;
+            this.items = items;
+            this.synced = new ItemStack[items.size()];
+            Arrays.fill(synced, ItemStack.EMPTY);
+        }
+
+        /**
+         * Called once the items are loaded, clients get all of them along with the chunk anyway.
+         */
+        public void reset() {
+            for (int slot = 0; slot < synced.length; slot++) {
+                synced[slot] = items.get(slot).copy();
+            }
+        }
+
+        private int collectChanges() {
+            int mask = 0;
+            for (int slot = 0; slot < synced.length; slot++) {
+                ItemStack stack = items.get(slot);
+                if (!ItemStack.areEqual(stack, synced[slot])) {
+                    mask |= 1 << slot;
+                    synced[slot] = stack.copy();
+                }
+            }
+            return mask;
+        }
+    }
+}
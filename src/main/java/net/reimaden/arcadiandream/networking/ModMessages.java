@@ -7,6 +7,11 @@ package net.reimaden.arcadiandream.networking;
 
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.reimaden.arcadiandream.ArcadianDream;
+import net.reimaden.arcadiandream.networking.packet.DanmakuCancelS2CPacket;
+import net.reimaden.arcadiandream.networking.packet.DanmakuPatternsS2CPacket;
+import net.reimaden.arcadiandream.networking.packet.DanmakuRemoveS2CPacket;
+import net.reimaden.arcadiandream.networking.packet.DanmakuSeedS2CPacket;
+import net.reimaden.arcadiandream.networking.packet.DanmakuVolleyS2CPacket;
 import net.reimaden.arcadiandream.networking.packet.ItemStackSyncS2CPacket;
 import net.minecraft.util.Identifier;
 
@@ -14,8 +19,18 @@ public class ModMessages {
 
     // S2C
     public static final Identifier ITEM_SYNC = new Identifier(ArcadianDream.MOD_ID, "item_sync");
+    public static final Identifier DANMAKU_VOLLEY = new Identifier(ArcadianDream.MOD_ID, "danmaku_volley");
+    public static final Identifier DANMAKU_REMOVE = new Identifier(ArcadianDream.MOD_ID, "danmaku_remove");
+    public static final Identifier DANMAKU_CANCEL = new Identifier(ArcadianDream.MOD_ID, "danmaku_cancel");
+    public static final Identifier DANMAKU_PATTERNS = new Identifier(ArcadianDream.MOD_ID, "danmaku_patterns");
+    public static final Identifier DANMAKU_SEED = new Identifier(ArcadianDream.MOD_ID, "danmaku_seed");
 
     public static void registerS2CPackets() {
         ClientPlayNetworking.registerGlobalReceiver(ITEM_SYNC, ItemStackSyncS2CPacket::receive);
+        ClientPlayNetworking.registerGlobalReceiver(DANMAKU_VOLLEY, DanmakuVolleyS2CPacket::receive);
+        ClientPlayNetworking.registerGlobalReceiver(DANMAKU_REMOVE, DanmakuRemoveS2CPacket::receive);
+        ClientPlayNetworking.registerGlobalReceiver(DANMAKU_CANCEL, DanmakuCancelS2CPacket::receive);
+        ClientPlayNetworking.registerGlobalReceiver(DANMAKU_PATTERNS, DanmakuPatternsS2CPacket::receive);
+        ClientPlayNetworking.registerGlobalReceiver(DANMAKU_SEED, DanmakuSeedS2CPacket::receive);
     }
 }
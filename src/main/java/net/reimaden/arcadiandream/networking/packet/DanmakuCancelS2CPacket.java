@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking.packet;
+
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import net.reimaden.arcadiandream.particle.ModParticles;
+
+public class DanmakuCancelS2CPacket {
+
+    @SuppressWarnings("unused")
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
+        double centerX = buf.readDouble();
+        double centerY = buf.readDouble();
+        double centerZ = buf.readDouble();
+
+        // Every cancelled bullet is sent as an offset from the center
+        float[] offsets = new float[buf.readVarInt() * 3];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buf.readFloat();
+        }
+
+        client.execute(() -> {
+            if (client.world == null) {
+                return;
+            }
+
+            for (int i = 0; i < offsets.length; i += 3) {
+                client.world.addParticle(ModParticles.BULLET_CANCEL,
+                        centerX + offsets[i], centerY + offsets[i + 1], centerZ + offsets[i + 2], 0, 0, 0);
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking.packet;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.networking.ModMessages;
+
+public class DanmakuPatternsS2CPacket {
+
+    public static void send(ServerPlayerEntity player, BulletPatternManager manager) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        manager.write(buf);
+        ServerPlayNetworking.send(player, ModMessages.DANMAKU_PATTERNS, buf);
+    }
+
+    @SuppressWarnings("unused")
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
+        // Swapped in right away, since the volleys that come after this are read on the same thread
+        BulletPatternManager.setClient(BulletPatternManager.read(buf));
+    }
+}
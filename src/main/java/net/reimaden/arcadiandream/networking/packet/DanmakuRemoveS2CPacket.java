@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking.packet;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import net.reimaden.arcadiandream.danmaku.client.ClientDanmakuField;
+
+public class DanmakuRemoveS2CPacket {
+
+    @SuppressWarnings("unused")
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
+        IntList ids = buf.readIntList();
+
+        client.execute(() -> {
+            if (client.world != null) {
+                ClientDanmakuField.get(client.world).remove(ids);
+            }
+        });
+    }
+}
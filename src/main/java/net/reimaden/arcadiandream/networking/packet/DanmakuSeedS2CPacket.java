@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking.packet;
+
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import net.reimaden.arcadiandream.danmaku.client.DanmakuPredictor;
+
+public class DanmakuSeedS2CPacket {
+
+    @SuppressWarnings("unused")
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
+        long baseSeed = buf.readLong();
+        int nextSequence = buf.readVarInt();
+
+        client.execute(() -> DanmakuPredictor.start(baseSeed, nextSequence));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.networking.packet;
+
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.PacketByteBuf;
+import net.reimaden.arcadiandream.danmaku.BulletPatternManager;
+import net.reimaden.arcadiandream.danmaku.DanmakuVolley;
+import net.reimaden.arcadiandream.danmaku.client.ClientDanmakuField;
+import net.reimaden.arcadiandream.danmaku.client.DanmakuPredictor;
+
+public class DanmakuVolleyS2CPacket {
+
+    @SuppressWarnings("unused")
+    public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
+        DanmakuVolley volley = DanmakuVolley.read(buf, BulletPatternManager.get(true));
+        if (volley == null) {
+            return;
+        }
+
+        client.execute(() -> {
+            if (client.world == null) {
+                return;
+            }
+
+            // The player's own volleys might already be on screen
+            ClientDanmakuField field = ClientDanmakuField.get(client.world);
+            if (!DanmakuPredictor.reconcile(client.world, volley, field)) {
+                field.fire(volley);
+            }
+        });
+    }
+}
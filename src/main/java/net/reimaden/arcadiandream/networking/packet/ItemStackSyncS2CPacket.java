@@ -7,9 +7,7 @@ package net.reimaden.arcadiandream.networking.packet;
 
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
 import net.minecraft.block.entity.BlockEntity;
-import net.reimaden.arcadiandream.block.entity.DanmakuCraftingTableBlockEntity;
-import net.reimaden.arcadiandream.block.entity.OnbashiraBlockEntity;
-import net.reimaden.arcadiandream.block.entity.RitualShrineBlockEntity;
+import net.reimaden.arcadiandream.block.entity.ImplementedInventory;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.item.ItemStack;
@@ -17,24 +15,73 @@ import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.List;
+
+/**
+ * The slots that changed in the block entities of one chunk during a tick.
+ *
+ * @see net.reimaden.arcadiandream.networking.InventorySync
+ */
 public class ItemStackSyncS2CPacket {
 
-    @SuppressWarnings({"unused", "DataFlowIssue"})
+    @SuppressWarnings("unused")
     public static void receive(MinecraftClient client, ClientPlayNetworkHandler handler, PacketByteBuf buf, PacketSender packetSender) {
-        int size = buf.readInt();
-        DefaultedList<ItemStack> list = DefaultedList.ofSize(size, ItemStack.EMPTY);
-        for (int i = 0; i < size; i++) {
-            list.set(i, buf.readItemStack());
+        int count = buf.readVarInt();
+        BlockPos[] positions = new BlockPos[count];
+        int[] masks = new int[count];
+        ItemStack[][] stacks = new ItemStack[count][];
+
+        for (int i = 0; i < count; i++) {
+            positions[i] = buf.readBlockPos();
+            masks[i] = buf.readVarInt();
+            stacks[i] = readStacks(buf, masks[i]);
         }
-        BlockPos pos = buf.readBlockPos();
-
-        BlockEntity blockEntity = client.world.getBlockEntity(pos);
-        if (blockEntity instanceof OnbashiraBlockEntity) {
-            ((OnbashiraBlockEntity) blockEntity).setInventory(list);
-        } else if (blockEntity instanceof RitualShrineBlockEntity) {
-            ((RitualShrineBlockEntity) blockEntity).setInventory(list);
-        } else if (blockEntity instanceof DanmakuCraftingTableBlockEntity) {
-            ((DanmakuCraftingTableBlockEntity) blockEntity).setInventory(list);
+
+        client.execute(() -> {
+            if (client.world == null) {
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                BlockEntity blockEntity = client.world.getBlockEntity(positions[i]);
+                if (blockEntity instanceof ImplementedInventory inventory) {
+                    apply(inventory.getItems(), masks[i], stacks[i]);
+                }
+            }
+        });
+    }
+
+    private static void apply(DefaultedList<ItemStack> items, int mask, ItemStack[] stacks) {
+        int index = 0;
+        while (mask != 0) {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if (slot < items.size()) {
+                items.set(slot, stacks[index]);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Reads the stacks of the slots in the mask, in slot order.
+     */
+    public static ItemStack[] readStacks(PacketByteBuf buf, int mask) {
+        ItemStack[] stacks = new ItemStack[Integer.bitCount(mask)];
+        for (int i = 0; i < stacks.length; i++) {
+            stacks[i] = buf.readItemStack();
+        }
+        return stacks;
+    }
+
+    public static void write(PacketByteBuf buf, BlockPos pos, int mask, List<ItemStack> items) {
+        buf.writeBlockPos(pos);
+        buf.writeVarInt(mask);
+        int slots = mask;
+        while (slots != 0) {
+            int slot = Integer.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            buf.writeItemStack(items.get(slot));
         }
     }
 }
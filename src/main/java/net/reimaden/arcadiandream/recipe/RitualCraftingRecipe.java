@@ -8,6 +8,7 @@ package net.reimaden.arcadiandream.recipe;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import net.minecraft.inventory.Inventory;
 import net.minecraft.inventory.SimpleInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.PacketByteBuf;
@@ -17,8 +18,12 @@ import net.minecraft.util.JsonHelper;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.world.World;
 
+import java.util.Arrays;
+
 public class RitualCraftingRecipe implements Recipe<SimpleInventory> {
 
+    public static final int MAX_INGREDIENTS = 16;
+
     private final Identifier id;
     private final ItemStack output;
     private final DefaultedList<Ingredient> recipeItems;
@@ -39,31 +44,79 @@ public class RitualCraftingRecipe implements Recipe<SimpleInventory> {
             return false;
         }
 
-        boolean result;
-        int index = 0;
-
-        do {
-            result = recipeItems.get(index).test(inventory.getStack(index));
-            index++;
-        } while (result && index < recipeItems.size());
-
-        if (recipeItems.size() < inventory.size()) {
-            result = false;
-        }
+        return matchesIngredients(inventory) && matchesConditions(world);
+    }
 
+    /**
+     * Checks the moon phase and dimension, without caring about the items.
+     */
+    public boolean matchesConditions(World world) {
         // If the recipe requires a specific moon phase, check for it
         // If a valid moon phase recipe is found, make sure it's during a night
         if ((moonPhase != world.getMoonPhase() && moonPhase != -1)
                 || (moonPhase == world.getMoonPhase()) && world.isDay()) {
-            result = false;
+            return false;
         }
 
         // If the recipe requires a specific dimension, check for it
-        if (!dimension.equalsIgnoreCase(world.getRegistryKey().getValue().getPath()) && !dimension.isEmpty()) {
-            result = false;
+        return dimension.isEmpty() || dimension.equalsIgnoreCase(world.getRegistryKey().getValue().getPath());
+    }
+
+    /**
+     * Checks only the items, without caring about the moon phase or dimension.
+     * Which onbashira holds which item doesn't matter, every ingredient just needs an item of its own.
+     */
+    public boolean matchesIngredients(Inventory inventory) {
+        int size = recipeItems.size();
+        if (size != inventory.size() || size > MAX_INGREDIENTS) {
+            return false;
+        }
+
+        // The slots each ingredient would take, as a bitset
+        int[] accepted = new int[size];
+        for (int index = 0; index < size; index++) {
+            Ingredient ingredient = recipeItems.get(index);
+            for (int slot = 0; slot < size; slot++) {
+                if (ingredient.test(inventory.getStack(slot))) {
+                    accepted[index] |= 1 << slot;
+                }
+            }
+            if (accepted[index] == 0) {
+                return false;
+            }
+        }
+
+        // Hand out the slots one ingredient at a time, moving earlier ones around when they're in the way
+        int[] slotOwners = new int[size];
+        Arrays.fill(slotOwners, -1);
+        int[] visited = new int[1];
+        for (int index = 0; index < size; index++) {
+            visited[0] = 0;
+            if (!assign(index, accepted, slotOwners, visited)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean assign(int index, int[] accepted, int[] slotOwners, int[] visited) {
+        int slots = accepted[index];
+        while (slots != 0) {
+            int slot = Integer.numberOfTrailingZeros(slots);
+            slots &= slots - 1;
+            if ((visited[0] & 1 << slot) != 0) {
+                continue;
+            }
+            visited[0] |= 1 << slot;
+
+            if (slotOwners[slot] < 0 || assign(slotOwners[slot], accepted, slotOwners, visited)) {
+                slotOwners[slot] = index;
+                return true;
+            }
         }
 
-        return result;
+        return false;
     }
 
     public byte getMoonPhase() {
@@ -132,7 +185,7 @@ public class RitualCraftingRecipe implements Recipe<SimpleInventory> {
             if (ingredients.isEmpty()) {
                 throw new JsonParseException("No ingredients for Ritual Crafting recipe");
             }
-            if (ingredients.size() > 16) {
+            if (ingredients.size() > MAX_INGREDIENTS) {
                 throw new JsonParseException("Too many ingredients for Ritual Crafting recipe");
             }
             if (moonPhase != -1 && (moonPhase > 7 || moonPhase < 0)) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2023 Maxmani and contributors.
+ * Licensed under the EUPL-1.2 or later.
+ */
+
+package net.reimaden.arcadiandream.recipe;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.RecipeManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Every ritual crafting recipe, sorted by how many ingredients they take.
+ * <p>
+ * Each ingredient also gets a signature: a 64-bit mask with one bit per item it accepts, hashed
+ * by item. A recipe can only match if every one of its ingredients shares a bit with the items
+ * on the onbashiras, so most recipes get turned down without testing a single ingredient.
+ * The ones that are left are matched for real, see {@link RitualCraftingRecipe#matchesIngredients}.
+ * <p>
+ * The index is built once the recipes are loaded, and thrown away whenever they're reloaded.
+ */
+public final class RitualRecipeIndex {
+
+    @Nullable
+    private static RitualRecipeIndex current;
+
+    @Nullable
+    private final RecipeManager manager;
+    @SuppressWarnings("unchecked")
+    private final List<Entry>[] buckets = new List[RitualCraftingRecipe.MAX_INGREDIENTS + 1];
+
+    private RitualRecipeIndex(@Nullable RecipeManager manager, Collection<RitualCraftingRecipe> recipes) {
+        this.manager = manager;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+
+        for (RitualCraftingRecipe recipe : recipes) {
+            int count = recipe.getIngredients().size();
+            if (count > 0 && count <= RitualCraftingRecipe.MAX_INGREDIENTS) {
+                buckets[count].add(new Entry(recipe));
+            }
+        }
+    }
+
+    public static RitualRecipeIndex get(RecipeManager manager) {
+        RitualRecipeIndex index = current;
+        if (index == null || index.manager != manager) {
+            index = new RitualRecipeIndex(manager, manager.listAllOfType(RitualCraftingRecipe.Type.INSTANCE));
+            current = index;
+        }
+        return index;
+    }
+
+    /**
+     * An index of its own over just these recipes, for benchmarks. It isn't cached.
+     */
+    public static RitualRecipeIndex of(Collection<RitualCraftingRecipe> recipes) {
+        return new RitualRecipeIndex(null, recipes);
+    }
+
+    public static void invalidate() {
+        current = null;
+    }
+
+    /**
+     * Does what {@code RecipeManager.getFirstMatch} does, in any order of items.
+     */
+    public Optional<RitualCraftingRecipe> getFirstMatch(Inventory inventory, World world) {
+        if (world.isClient()) {
+            return Optional.empty();
+        }
+        return getFirstMatch(inventory, recipe -> recipe.matchesConditions(world));
+    }
+
+    /**
+     * @param conditions whatever else a recipe needs besides its ingredients, only checked once those match
+     */
+    public Optional<RitualCraftingRecipe> getFirstMatch(Inventory inventory, Predicate<RitualCraftingRecipe> conditions) {
+        int count = inventory.size();
+        if (count == 0 || count > RitualCraftingRecipe.MAX_INGREDIENTS) {
+            return Optional.empty();
+        }
+
+        long signature = 0;
+        for (int slot = 0; slot < count; slot++) {
+            ItemStack stack = inventory.getStack(slot);
+            if (!stack.isEmpty()) {
+                signature |= getSignature(stack.getItem());
+            }
+        }
+
+        for (Entry entry : buckets[count]) {
+            if (entry.mayMatch(signature) && entry.recipe.matchesIngredients(inventory) && conditions.test(entry.recipe)) {
+                return Optional.of(entry.recipe);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static long getSignature(Item item) {
+        return 1L << (HashCommon.mix(Registries.ITEM.getRawId(item)) & 63);
+    }
+
+    private static final class Entry {
+
+        private final RitualCraftingRecipe recipe;
+        private final long[] signatures;
+
+        private Entry(RitualCraftingRecipe recipe) {
+            this.recipe = recipe;
+
+            List<Ingredient> ingredients = recipe.getIngredients();
+            this.signatures = new long[ingredients.size()];
+            for (int i = 0; i < signatures.length; i++) {
+                for (ItemStack stack : ingredients.get(i).getMatchingStacks()) {
+                    signatures[i] |= getSignature(stack.getItem());
+                }
+            }
+        }
+
+        private boolean mayMatch(long signature) {
+            for (long ingredient : signatures) {
+                if ((ingredient & signature) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,15 +1,22 @@
 /*
- * Copyright (c) 2022 Maxmani and contributors.
+ * Copyright (c) 2022-2023 Maxmani and contributors.
  * Licensed under the EUPL-1.2 or later.
  */
 
 package net.reimaden.arcadiandream.util;
 
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import net.fabricmc.fabric.api.loot.v2.LootTableEvents;
 import net.minecraft.block.Block;
 import net.minecraft.loot.LootTables;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagGroupLoader;
+import net.minecraft.registry.tag.TagManagerLoader;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
 import net.reimaden.arcadiandream.ArcadianDream;
 import net.reimaden.arcadiandream.item.ModItems;
 import net.minecraft.loot.LootPool;
@@ -23,13 +30,21 @@ import net.minecraft.loot.provider.number.UniformLootNumberProvider;
 import net.minecraft.predicate.NumberRange;
 import net.minecraft.predicate.entity.LocationPredicate;
 import net.minecraft.predicate.item.ItemPredicate;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class ModLootTableModifiers {
 
     private static final int peach_height = ArcadianDream.CONFIG.hisouSwordOptions.minHeightForPeaches();
 
+    // The loot tables of the leaves in the peach_leaves tag, worked out once for every reload
+    @Nullable
+    private static ResourceManager resolvedFor;
+    private static Set<Identifier> peachTables = Set.of();
+
     public static void modify() {
         LootTableEvents.MODIFY.register((resourceManager, lootManager, id, tableBuilder, source) -> {
             LootPool.Builder poolBuilder = LootPool.builder();
@@ -43,18 +58,44 @@ public class ModLootTableModifiers {
                 tableBuilder.pool(poolBuilder.build());
             }
 
-            for (Map.Entry<RegistryKey<Block>, Block> entry : Registries.BLOCK.getEntrySet()) {
-                Block block = entry.getValue();
-                if (entry.getKey().getValue().toString().endsWith("leaves") && block.getLootTableId().equals(id)) {
-                    poolBuilder
-                            .rolls(ConstantLootNumberProvider.create(1))
-                            .conditionally(RandomChanceLootCondition.builder(0.10f))
-                            .with(ItemEntry.builder(ModItems.HEAVENLY_PEACH))
-                            .conditionally(MatchToolLootCondition.builder(ItemPredicate.Builder.create().items(ModItems.HISOU_SWORD)))
-                            .conditionally(LocationCheckLootCondition.builder(LocationPredicate.Builder.create().y(NumberRange.FloatRange.atLeast(peach_height))));
-                    tableBuilder.pool(poolBuilder.build());
-                }
+            if (getPeachTables(resourceManager).contains(id)) {
+                poolBuilder
+                        .rolls(ConstantLootNumberProvider.create(1))
+                        .conditionally(RandomChanceLootCondition.builder(0.10f))
+                        .with(ItemEntry.builder(ModItems.HEAVENLY_PEACH))
+                        .conditionally(MatchToolLootCondition.builder(ItemPredicate.Builder.create().items(ModItems.HISOU_SWORD)))
+                        .conditionally(LocationCheckLootCondition.builder(LocationPredicate.Builder.create().y(NumberRange.FloatRange.atLeast(peach_height))));
+                tableBuilder.pool(poolBuilder.build());
             }
         });
     }
+
+    private static synchronized Set<Identifier> getPeachTables(ResourceManager resourceManager) {
+        if (resourceManager != resolvedFor) {
+            peachTables = resolvePeachTables(resourceManager);
+            resolvedFor = resourceManager;
+        }
+        return peachTables;
+    }
+
+    // Tags only get bound to the registry after every loot table is loaded, so the tag is read from the data packs
+    private static Set<Identifier> resolvePeachTables(ResourceManager resourceManager) {
+        TagGroupLoader<RegistryEntry<Block>> loader = new TagGroupLoader<>(
+                id -> Registries.BLOCK.getEntry(RegistryKey.of(RegistryKeys.BLOCK, id)), TagManagerLoader.getPath(RegistryKeys.BLOCK));
+        Collection<RegistryEntry<Block>> leaves = loader.load(resourceManager).getOrDefault(ModTags.Blocks.PEACH_LEAVES.id(), List.of());
+
+        Set<Identifier> tables = new ObjectOpenHashSet<>();
+        for (RegistryEntry<Block> entry : leaves) {
+            tables.add(entry.value().getLootTableId());
+        }
+        return tables;
+    }
+
+    /**
+     * Lets go of the last reload's resources, the next reload resolves the tables again anyway.
+     */
+    public static synchronized void invalidate() {
+        resolvedFor = null;
+        peachTables = Set.of();
+    }
 }
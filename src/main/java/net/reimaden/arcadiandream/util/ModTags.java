@@ -28,6 +28,7 @@ public class ModTags {
         public static final TagKey<Block> OBSIDIAN_BLOCKS = createCommonTag("obsidian_blocks");
         public static final TagKey<Block> DRAGON_GEM_ORES = createTag("dragon_gem_ores");
         public static final TagKey<Block> FAIRIES_SPAWNABLE_ON = createTag("fairies_spawnable_on");
+        public static final TagKey<Block> PEACH_LEAVES = createTag("peach_leaves");
 
         private static TagKey<Block> createTag(String name) {
             return TagKey.of(RegistryKeys.BLOCK, new Identifier(ArcadianDream.MOD_ID, name));
@@ -52,6 +53,8 @@ public class ModTags {
         public static final TagKey<Item> DANMAKU_DENSITY_MODIFIERS = createTag("danmaku_density_modifiers");
         public static final TagKey<Item> DANMAKU_SPEED_MODIFIERS = createTag("danmaku_speed_modifiers");
         public static final TagKey<Item> DANMAKU_DURATION_MODIFIERS = createTag("danmaku_duration_modifiers");
+        public static final TagKey<Item> DANMAKU_GRAVITY_MODIFIERS = createTag("danmaku_gravity_modifiers");
+        public static final TagKey<Item> DANMAKU_DIVERGENCE_MODIFIERS = createTag("danmaku_divergence_modifiers");
         public static final TagKey<Item> HAMMERS = createCommonTag("hammers");
         public static final TagKey<Item> UNDEAD_PARTS = createTag("undead_parts");
 